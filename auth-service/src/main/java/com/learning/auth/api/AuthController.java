@@ -1,14 +1,26 @@
 package com.learning.auth.api;
 
+import com.learning.auth.domain.UserCredentials;
 import com.learning.auth.security.JwtService;
-import com.learning.auth.persistence.UserRepository;
+import com.learning.auth.persistence.UserCache;
+import com.learning.auth.security.LoginRateLimiter;
+import com.learning.auth.security.PasswordVerificationCapacityExceededException;
+import com.learning.auth.security.PasswordVerifier;
+import com.learning.auth.security.RateLimitExceededException;
+import com.learning.auth.security.RefreshTokenService;
+import com.learning.auth.security.SigningCapacityExceededException;
+import com.learning.auth.security.TokenRegistrationException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Mono;
 
+import java.net.InetSocketAddress;
 import java.util.Map;
 
 @RestController
@@ -16,39 +28,91 @@ import java.util.Map;
 public class AuthController {
 
     private final JwtService jwtService;
-    private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final PasswordVerifier passwordVerifier;
+    private final RefreshTokenService refreshTokenService;
+    private final LoginRateLimiter loginRateLimiter;
 
     @PostMapping("/oauth/token")
     public Mono<ResponseEntity<Map<String, String>>> token(
             @RequestParam("grant_type") String grantType,
-            @RequestParam("username") String username,
-            @RequestParam("password") String password) {
+            @RequestParam(value = "username", required = false) String username,
+            @RequestParam(value = "password", required = false) String password,
+            @RequestParam(value = "refresh_token", required = false) String refreshToken,
+            ServerHttpRequest request) {
 
-        if (!"password".equals(grantType)) {
+        Mono<Map<String, String>> tokens;
+        if ("password".equals(grantType) && username != null && password != null) {
+            // Deferred so a throttled request never reaches the user cache or the database
+            String clientIp = clientIp(request);
+            tokens = loginRateLimiter.acquire(clientIp, username)
+                    .then(Mono.defer(() -> passwordVerifier.authenticate(username, password)))
+                    // Only wrong passwords count against the username, so correct logins never lock it
+                    .switchIfEmpty(Mono.defer(() -> loginRateLimiter.recordFailure(clientIp, username)
+                            .then(Mono.<UserCredentials>empty())))
+                    // The refresh token family is only written once signing and registration have succeeded,
+                    // so a 503 under overload leaves nothing behind in Redis
+                    .flatMap(user -> jwtService.generateToken(user.username(), user.roles())
+                            .flatMap(accessToken -> refreshTokenService.issue(user.username())
+                                    .map(issued -> tokenResponse(accessToken, issued))));
+        } else if ("refresh_token".equals(grantType) && refreshToken != null) {
+            // No password check here: the refresh token stands in for it, roles are re-read from the user.
+            // It is only consumed once the access token exists, so a 503 from signing can be retried with it.
+            tokens = loginRateLimiter.acquire(clientIp(request), null)
+                    .then(Mono.defer(() -> refreshTokenService.holder(refreshToken)))
+                    .flatMap(userCache::findByUsername)
+                    .flatMap(user -> jwtService.generateToken(user.username(), user.roles()))
+                    .flatMap(accessToken -> refreshTokenService.rotate(refreshToken)
+                            .map(refreshed -> tokenResponse(accessToken, refreshed.refreshToken()))
+                            // A concurrent refresh consumed the token first: do not hand out the new access token
+                            .switchIfEmpty(Mono.defer(() -> jwtService.revokeToken(accessToken)
+                                    .then(Mono.<Map<String, String>>empty()))));
+        } else {
             return Mono.just(ResponseEntity.badRequest().build());
         }
 
-        return userRepository.findByUsername(username)
-                .filter(user -> {
-                    // Simple password check (handling {noop} prefix if present)
-                    String dbPass = user.getPassword().replace("{noop}", "");
-                    return dbPass.equals(password);
-                })
-                .map(user -> {
-                    String token = jwtService.generateToken(user.getUsername(), user.getRoles());
-                    return ResponseEntity.ok(Map.of(
-                            "access_token", token,
-                            "token_type", "Bearer",
-                            "expires_in", "3600"
-                    ));
-                })
-                .defaultIfEmpty(ResponseEntity.status(401).build());
-
+        return tokens
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.status(401).build())
+                .onErrorResume(RateLimitExceededException.class, e -> Mono.just(
+                        ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds(e)))
+                                .<Map<String, String>>build()))
+                // Hashing or signing pool saturated, or whitelist unavailable: shed load, the client can retry
+                .onErrorResume(e -> e instanceof PasswordVerificationCapacityExceededException
+                        || e instanceof SigningCapacityExceededException
+                        || e instanceof TokenRegistrationException, e -> Mono.just(
+                        ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .header(HttpHeaders.RETRY_AFTER, "1")
+                                .<Map<String, String>>build()));
     }
 
     @PostMapping("/oauth/revoke")
     public Mono<ResponseEntity<Void>> revoke(@RequestParam("token") String token) {
-        return jwtService.revokeToken(token)
-                .map(deleted -> ResponseEntity.ok().<Void>build());
+        // Access tokens are JWTs; anything else is treated as a refresh token
+        Mono<Boolean> revoked = token.indexOf('.') >= 0
+                ? jwtService.revokeToken(token)
+                : refreshTokenService.revoke(token);
+        return revoked.map(deleted -> ResponseEntity.ok().<Void>build());
+    }
+
+    private static String clientIp(ServerHttpRequest request) {
+        // Behind a proxy, set server.forward-headers-strategy so this is the client and not the proxy
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        return remoteAddress == null ? "unknown" : remoteAddress.getHostString();
+    }
+
+    private static long retryAfterSeconds(RateLimitExceededException e) {
+        // Retry-After is whole seconds; round up so a client honouring it is not throttled again
+        return Math.max(1, (e.retryAfter().toMillis() + 999) / 1000);
+    }
+
+    private Map<String, String> tokenResponse(String accessToken, String refreshToken) {
+        return Map.of(
+                "access_token", accessToken,
+                "token_type", "Bearer",
+                "expires_in", String.valueOf(jwtService.accessTokenTtl().toSeconds()),
+                "refresh_token", refreshToken
+        );
     }
 }
@@ -0,0 +1,55 @@
+package com.learning.auth.api;
+
+import com.learning.auth.security.SigningCapacityExceededException;
+import com.learning.auth.security.TokenIntrospection;
+import com.learning.auth.security.TokenIntrospector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@RestController
+public class IntrospectionController {
+
+    private final TokenIntrospector tokenIntrospector;
+    private final int maxBatchSize;
+
+    public IntrospectionController(TokenIntrospector tokenIntrospector,
+                                   @Value("${auth.introspection.max-batch-size:10000}") int maxBatchSize) {
+        this.tokenIntrospector = tokenIntrospector;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @PostMapping("/oauth/introspect")
+    public Mono<ResponseEntity<TokenIntrospection>> introspect(@RequestParam("token") String token) {
+        return tokenIntrospector.introspect(List.of(token))
+                .next()
+                .map(ResponseEntity::ok)
+                .onErrorResume(SigningCapacityExceededException.class, e -> Mono.just(
+                        ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .header(HttpHeaders.RETRY_AFTER, "1")
+                                .<TokenIntrospection>build()));
+    }
+
+    /**
+     * Takes a JSON array of tokens and streams one introspection per token, in the same order, as NDJSON.
+     */
+    @PostMapping(value = "/oauth/introspect/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Flux<TokenIntrospection>> introspectBatch(@RequestBody List<String> tokens) {
+        if (tokens.size() > maxBatchSize) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(tokenIntrospector.introspect(tokens));
+    }
+}
@@ -0,0 +1,77 @@
+package com.learning.auth.api;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.learning.auth.security.JwtService;
+import com.learning.auth.security.RefreshTokenService;
+import com.learning.auth.security.SessionIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Session management for the caller identified by its bearer access token, built on the {@link SessionIndex}.
+ * The token is authenticated by the sessions filter chain in {@code SecurityConfig}, which also requires the
+ * ADMIN role for revoking another user's sessions.
+ */
+@RestController
+@RequiredArgsConstructor
+public class SessionController {
+
+    private final SessionIndex sessionIndex;
+    private final JwtService jwtService;
+    private final RefreshTokenService refreshTokenService;
+
+    @GetMapping("/oauth/sessions")
+    public Mono<List<SessionView>> list(@AuthenticationPrincipal Jwt caller) {
+        return sessionIndex.live(caller.getSubject())
+                .map(session -> new SessionView(session.jti(), session.expiresAt().getEpochSecond(),
+                        session.jti().equals(caller.getId())))
+                .collectList();
+    }
+
+    /**
+     * Logs the caller out everywhere. With {@code keep_current=true} the presented access token, and the
+     * refresh token family of the {@code refresh_token} form field if given, stay valid. The refresh token
+     * is read from the body so it never ends up in access logs with the URL.
+     */
+    @DeleteMapping("/oauth/sessions")
+    public Mono<Map<String, Long>> revokeAll(@AuthenticationPrincipal Jwt caller,
+                                             @RequestParam(value = "keep_current", defaultValue = "false") boolean keepCurrent,
+                                             ServerWebExchange exchange) {
+        if (!keepCurrent) {
+            return revoke(caller.getSubject(), null, null);
+        }
+        return exchange.getFormData()
+                .flatMap(form -> revoke(caller.getSubject(), caller.getId(), form.getFirst("refresh_token")));
+    }
+
+    /**
+     * Logs another user out everywhere, e.g. after a credential leak.
+     */
+    @DeleteMapping("/oauth/sessions/{username}")
+    public Mono<Map<String, Long>> revokeAllOf(@PathVariable("username") String username) {
+        return revoke(username, null, null);
+    }
+
+    private Mono<Map<String, Long>> revoke(String username, String keptJti, String keptRefreshToken) {
+        return Mono.zip(
+                        jwtService.revokeSessions(username, keptJti),
+                        refreshTokenService.revokeFamilies(username, keptRefreshToken))
+                .map(revoked -> Map.of(
+                        "revoked_access_tokens", revoked.getT1(),
+                        "revoked_refresh_token_families", revoked.getT2()));
+    }
+
+    public record SessionView(String jti, @JsonProperty("expires_at") long expiresAt, boolean current) {
+    }
+}
@@ -1,22 +1,10 @@
 package com.learning.auth.config;
 
-import org.springframework.context.annotation.Bean;
+import com.learning.tokenstore.TokenStoreConfiguration;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
-import org.springframework.data.redis.core.ReactiveRedisTemplate;
-import org.springframework.data.redis.serializer.RedisSerializationContext;
-import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.context.annotation.Import;
 
 @Configuration
+@Import(TokenStoreConfiguration.class)
 public class RedisConfig {
-
-    @Bean("activeTokensCache")
-    public ReactiveRedisTemplate<String, String> activeTokensCache(ReactiveRedisConnectionFactory factory) {
-        StringRedisSerializer serializer = new StringRedisSerializer();
-        RedisSerializationContext<String, String> context = RedisSerializationContext
-                .<String, String>newSerializationContext(serializer)
-                .value(serializer)
-                .build();
-        return new ReactiveRedisTemplate<>(factory, context);
-    }
 }
@@ -0,0 +1,14 @@
+package com.learning.auth.domain;
+
+import java.util.List;
+
+/**
+ * Immutable view of a {@link User} as needed for authentication, with the roles already split.
+ */
+public record UserCredentials(Long id, String username, String password, String roles, List<String> roleList) {
+
+    public static UserCredentials from(User user) {
+        return new UserCredentials(user.getId(), user.getUsername(), user.getPassword(), user.getRoles(),
+                List.of(user.getRoles().split(",")));
+    }
+}
@@ -0,0 +1,77 @@
+package com.learning.auth.persistence;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.learning.auth.domain.UserCredentials;
+import com.learning.tokenstore.ReactiveTimers;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Bounded, TTL-based read-through cache in front of {@link UserRepository} for the login path.
+ * <p>
+ * Password and role changes must go through {@link #updatePassword} / {@link #updateRoles} (or call
+ * {@link #invalidate}) so the cached entry is dropped. Hits, misses and evictions are exported as the
+ * {@code cache.*} meters with {@code cache=users}.
+ */
+@Component
+public class UserCache {
+
+    private final UserRepository userRepository;
+    private final AsyncCache<String, UserCredentials> cache;
+    private final Timer lookupTime;
+
+    public UserCache(UserRepository userRepository,
+                     MeterRegistry meterRegistry,
+                     @Value("${auth.user-cache.maximum-size:10000}") long maximumSize,
+                     @Value("${auth.user-cache.ttl:5m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+        this.lookupTime = Timer.builder("auth.users.lookup.duration")
+                .description("Database lookups of users not found in the cache")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public Mono<UserCredentials> findByUsername(String username) {
+        // Unknown users complete with null and are not cached; concurrent misses share one query
+        return Mono.fromFuture(cache.get(username, (key, executor) -> ReactiveTimers.timed(lookupTime, userRepository.findByUsername(key))
+                        .map(UserCredentials::from)
+                        .toFuture()),
+                true);
+    }
+
+    public Mono<Void> updatePassword(String username, String encodedPassword) {
+        return invalidatingAround(username, userRepository.updatePassword(username, encodedPassword));
+    }
+
+    public Mono<Void> updateRoles(String username, String roles) {
+        return invalidatingAround(username, userRepository.updateRoles(username, roles));
+    }
+
+    public void invalidate(String username) {
+        cache.synchronous().invalidate(username);
+    }
+
+    /**
+     * Runs {@code write} between two invalidations. The first drops the entry before the row changes; the
+     * second drops whatever a lookup that read the old row while the write was running put back.
+     */
+    private Mono<Void> invalidatingAround(String username, Mono<Integer> write) {
+        return Mono.fromRunnable(() -> invalidate(username))
+                .then(write)
+                .doFinally(signal -> invalidate(username))
+                .then();
+    }
+}
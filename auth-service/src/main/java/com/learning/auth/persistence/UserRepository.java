@@ -1,9 +1,19 @@
 package com.learning.auth.persistence;
 
 import com.learning.auth.domain.User;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import reactor.core.publisher.Mono;
 
 public interface UserRepository extends R2dbcRepository<User, Long> {
     Mono<User> findByUsername(String username);
+
+    @Modifying
+    @Query("UPDATE users SET password = :password WHERE username = :username")
+    Mono<Integer> updatePassword(String username, String password);
+
+    @Modifying
+    @Query("UPDATE users SET roles = :roles WHERE username = :username")
+    Mono<Integer> updateRoles(String username, String roles);
 }
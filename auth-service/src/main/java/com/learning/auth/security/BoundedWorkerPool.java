@@ -0,0 +1,109 @@
+package com.learning.auth.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Fixed-size pool with a bounded queue for CPU-bound work called from reactive code.
+ * <p>
+ * When {@code queueCapacity} tasks are already waiting, {@link #submit} fails fast with the exception from
+ * {@code rejection} instead of queueing without limit. Results are handed back on a Reactor scheduler, so
+ * whatever the caller chains after {@link #submit} does not occupy a worker.
+ * <p>
+ * Exports {@code <meterPrefix>.queue.wait}, {@code <meterPrefix>.rejected} and {@code <meterPrefix>.queue.depth};
+ * time spent on the worker goes to the {@code workTime} timer, whose name is up to the owner.
+ */
+final class BoundedWorkerPool {
+
+    private final ThreadPoolExecutor executor;
+    private final Supplier<? extends RuntimeException> rejection;
+
+    private final Timer queueWait;
+    private final Timer workTime;
+    private final Counter rejected;
+
+    BoundedWorkerPool(String threadNamePrefix,
+                      int threads,
+                      int queueCapacity,
+                      Supplier<? extends RuntimeException> rejection,
+                      MeterRegistry meterRegistry,
+                      String meterPrefix,
+                      Timer workTime) {
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, threadNamePrefix + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.rejection = rejection;
+        this.workTime = workTime;
+
+        this.queueWait = Timer.builder(meterPrefix + ".queue.wait")
+                .description("Time a task waited for a worker")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejected = Counter.builder(meterPrefix + ".rejected")
+                .description("Tasks rejected because the queue was full")
+                .register(meterRegistry);
+        Gauge.builder(meterPrefix + ".queue.depth", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Default size of the signing pool. Signing and password hashing are both CPU bound, so by default the
+     * two pools split the cores between them instead of each taking all of them.
+     */
+    static int defaultSigningThreads() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors() - defaultHashingThreads());
+    }
+
+    /**
+     * Default size of the password hashing pool: half the cores, the rest going to signing.
+     */
+    static int defaultHashingThreads() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    }
+
+    <T> Mono<T> submit(Callable<T> task) {
+        return Mono.<T>create(sink -> {
+            long enqueuedAt = System.nanoTime();
+            try {
+                Future<?> future = executor.submit(() -> {
+                    long startedAt = System.nanoTime();
+                    queueWait.record(startedAt - enqueuedAt, TimeUnit.NANOSECONDS);
+                    try {
+                        sink.success(task.call());
+                    } catch (Throwable e) {
+                        sink.error(e);
+                    } finally {
+                        workTime.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                    }
+                });
+                sink.onCancel(() -> future.cancel(false));
+            } catch (RejectedExecutionException e) {
+                rejected.increment();
+                sink.error(rejection.get());
+            }
+        }).publishOn(Schedulers.parallel());
+    }
+
+    void shutdown() {
+        executor.shutdown();
+    }
+}
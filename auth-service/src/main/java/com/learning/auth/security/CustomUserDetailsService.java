@@ -1,6 +1,6 @@
 package com.learning.auth.security;
 
-import com.learning.auth.persistence.UserRepository;
+import com.learning.auth.persistence.UserCache;
 import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
@@ -9,19 +9,19 @@ import reactor.core.publisher.Mono;
 @Service
 public class CustomUserDetailsService implements ReactiveUserDetailsService {
 
-    private final UserRepository userRepository;
+    private final UserCache userCache;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
-        this.userRepository = userRepository;
+    public CustomUserDetailsService(UserCache userCache) {
+        this.userCache = userCache;
     }
 
     @Override
     public Mono<UserDetails> findByUsername(String username) {
-        return userRepository.findByUsername(username)
+        return userCache.findByUsername(username)
                 .map(user -> org.springframework.security.core.userdetails.User
-                        .withUsername(user.getUsername())
-                        .password(user.getPassword())
-                        .roles(user.getRoles().split(","))
+                        .withUsername(user.username())
+                        .password(user.password())
+                        .roles(user.roleList().toArray(String[]::new))
                         .build()
                 );
     }
@@ -0,0 +1,48 @@
+package com.learning.auth.security;
+
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Decodes bearer tokens presented to auth-service's own endpoints through the {@link TokenIntrospector}, so they
+ * get the same signature, expiry and whitelist checks as {@code /oauth/introspect}: a revoked token is refused
+ * here as soon as its whitelist entry is gone.
+ * <p>
+ * The resulting {@link Jwt} carries the introspected claims ({@code sub}, {@code jti}, {@code iat}, {@code exp},
+ * {@code roles}); the original JOSE header is not kept.
+ */
+class IntrospectingJwtDecoder implements ReactiveJwtDecoder {
+
+    private final TokenIntrospector tokenIntrospector;
+
+    IntrospectingJwtDecoder(TokenIntrospector tokenIntrospector) {
+        this.tokenIntrospector = tokenIntrospector;
+    }
+
+    @Override
+    public Mono<Jwt> decode(String token) {
+        return tokenIntrospector.introspect(List.of(token))
+                .next()
+                .filter(TokenIntrospection::active)
+                .switchIfEmpty(Mono.error(() -> new BadJwtException("Token is not active")))
+                .map(introspection -> {
+                    Jwt.Builder jwt = Jwt.withTokenValue(token)
+                            .header("typ", "JWT")
+                            .subject(introspection.sub())
+                            .jti(introspection.jti())
+                            .expiresAt(Instant.ofEpochSecond(introspection.exp()));
+                    if (introspection.iat() != null) {
+                        jwt.issuedAt(Instant.ofEpochSecond(introspection.iat()));
+                    }
+                    if (introspection.roles() != null) {
+                        jwt.claim("roles", introspection.roles());
+                    }
+                    return jwt.build();
+                });
+    }
+}
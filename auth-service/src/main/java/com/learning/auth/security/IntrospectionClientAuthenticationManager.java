@@ -0,0 +1,51 @@
+package com.learning.auth.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * Authenticates callers of the introspection endpoints (RFC 7662 §2.1) by the HTTP Basic client credentials
+ * {@code auth.introspection.client-id} / {@code auth.introspection.client-secret}.
+ * <p>
+ * The secret is a shared random string compared in constant time, not a password hash: BCrypt on every
+ * call would make each introspection cost as much as a login. With an empty secret every caller is refused.
+ */
+@Slf4j
+class IntrospectionClientAuthenticationManager implements ReactiveAuthenticationManager {
+
+    static final String ROLE = "INTROSPECTION";
+
+    private final String clientId;
+    private final byte[] clientSecret;
+
+    IntrospectionClientAuthenticationManager(String clientId, String clientSecret) {
+        this.clientId = clientId;
+        this.clientSecret = clientSecret.getBytes(StandardCharsets.UTF_8);
+        if (clientSecret.isEmpty()) {
+            log.warn("auth.introspection.client-secret is not set; /oauth/introspect will refuse every caller");
+        }
+    }
+
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        Object credentials = authentication.getCredentials();
+        byte[] presented = credentials == null ? new byte[0] : credentials.toString().getBytes(StandardCharsets.UTF_8);
+        boolean valid = clientSecret.length > 0
+                && clientId.equals(authentication.getName())
+                && MessageDigest.isEqual(clientSecret, presented);
+        if (!valid) {
+            return Mono.error(new BadCredentialsException("Invalid introspection client credentials"));
+        }
+        return Mono.just(UsernamePasswordAuthenticationToken.authenticated(clientId, null,
+                List.of(new SimpleGrantedAuthority("ROLE_" + ROLE))));
+    }
+}
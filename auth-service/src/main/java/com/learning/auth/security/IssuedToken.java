@@ -0,0 +1,9 @@
+package com.learning.auth.security;
+
+import java.time.Instant;
+
+/**
+ * A freshly signed access token together with the identifiers needed to register it.
+ */
+public record IssuedToken(String token, String jti, Instant expiresAt) {
+}
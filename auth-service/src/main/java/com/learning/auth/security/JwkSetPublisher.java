@@ -0,0 +1,71 @@
+package com.learning.auth.security;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learning.jwk.PublicJwk;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders the public half of the {@link SigningKeyRegistry} as a JWK Set (RFC 7517).
+ * <p>
+ * The JSON and its ETag are built once per key set version and reused until the registry reloads.
+ */
+@Component
+public class JwkSetPublisher {
+
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+
+    private final SigningKeyRegistry signingKeyRegistry;
+    private final ObjectMapper objectMapper;
+
+    private volatile Rendered rendered;
+
+    public JwkSetPublisher(SigningKeyRegistry signingKeyRegistry, ObjectMapper objectMapper) {
+        this.signingKeyRegistry = signingKeyRegistry;
+        this.objectMapper = objectMapper;
+    }
+
+    public Rendered current() {
+        String version = signingKeyRegistry.version();
+        Rendered current = rendered;
+        if (current == null || !current.version().equals(version)) {
+            current = render(version);
+            rendered = current;
+        }
+        return current;
+    }
+
+    private Rendered render(String version) {
+        List<Map<String, String>> keys = signingKeyRegistry.keys().stream()
+                .map(JwkSetPublisher::toJwk)
+                .toList();
+        try {
+            String json = objectMapper.writeValueAsString(Map.of("keys", keys));
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json.getBytes(StandardCharsets.UTF_8));
+            String etag = "\"" + BASE64URL.encodeToString(Arrays.copyOf(digest, 16)) + "\"";
+            return new Rendered(version, json, etag);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new RuntimeException("Failed to render JWK set", e);
+        }
+    }
+
+    static Map<String, String> toJwk(SigningKey key) {
+        Map<String, String> jwk = new LinkedHashMap<>(PublicJwk.members(key.publicKey()));
+        jwk.put("use", "sig");
+        jwk.put("alg", key.algorithm().getId());
+        jwk.put("kid", key.kid());
+        return jwk;
+    }
+
+    public record Rendered(String version, String json, String etag) {
+    }
+}
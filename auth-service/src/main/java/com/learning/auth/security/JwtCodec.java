@@ -0,0 +1,79 @@
+package com.learning.auth.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.ProtectedHeader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Signs access tokens with the active key of the {@link SigningKeyRegistry} and verifies them against
+ * every key it holds. Pure CPU work with no Redis or pool behind it, so tests and benchmarks can build one
+ * from a registry alone; {@link JwtService} adds the signing pool and whitelist registration around it.
+ */
+@Component
+public class JwtCodec {
+
+    // Distinct User.roles values whose encoded claim is kept; in practice a handful
+    private static final long MAX_ROLE_ENCODINGS = 1024;
+
+    private final SigningKeyRegistry signingKeyRegistry;
+
+    private final Duration accessTokenTtl;
+
+    private final JwtParser tokenParser;
+
+    private final JwtMinter minter = new JwtMinter(MAX_ROLE_ENCODINGS);
+
+    public JwtCodec(SigningKeyRegistry signingKeyRegistry,
+                    @Value("${tokens.access-token-ttl:15m}") Duration accessTokenTtl) {
+        this.signingKeyRegistry = signingKeyRegistry;
+        this.accessTokenTtl = accessTokenTtl;
+        this.tokenParser = Jwts.parser()
+                .keyLocator(header -> {
+                    String kid = header instanceof ProtectedHeader protectedHeader ? protectedHeader.getKeyId() : null;
+                    // Tokens issued before kids were stamped were signed with the single classpath key
+                    SigningKey key = kid == null ? signingKeyRegistry.activeKey() : signingKeyRegistry.findByKid(kid);
+                    if (key == null) {
+                        throw new JwtException("Unknown signing key: " + kid);
+                    }
+                    return key.publicKey();
+                })
+                .build();
+    }
+
+    /**
+     * Builds and signs a token on the calling thread. CPU heavy: never call it from an event loop.
+     */
+    public IssuedToken signToken(String username, String roles) {
+        SigningKey signingKey = signingKeyRegistry.activeKey();
+        String jti = UUID.randomUUID().toString();
+        long now = System.currentTimeMillis();
+        long expiry = now + accessTokenTtl.toMillis();
+
+        String token = minter.mint(signingKey, username, jti, now / 1000, expiry / 1000, roles);
+
+        return new IssuedToken(token, jti, Instant.ofEpochMilli(expiry));
+    }
+
+    /**
+     * Claims of a token signed by one of our keys and not expired, or {@code null} otherwise.
+     */
+    public Claims parseVerified(String token) {
+        try {
+            return tokenParser.parseSignedClaims(token).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public Duration accessTokenTtl() {
+        return accessTokenTtl;
+    }
+}
@@ -0,0 +1,273 @@
+package com.learning.auth.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Signature;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Builds and signs compact JWS access tokens without the general-purpose jjwt builder.
+ * <p>
+ * The Base64url header is computed once per signing key and the JSON of the {@code roles} claim once per
+ * distinct roles string. Claims are written straight into per-thread byte buffers, which are also the
+ * signing input, so a token costs its jti, the final {@link String} and little else. The signing pool
+ * has a fixed set of threads, so the thread-local buffers and {@link Signature} instances are reused.
+ * <p>
+ * The result is a standard JWS ({@code kid}, {@code typ}, {@code alg} header; {@code sub}, {@code jti},
+ * {@code iat}, {@code exp}, {@code roles} claims), as accepted by jjwt and Nimbus. ECDSA signatures use
+ * the JCA {@code inP1363Format} variants, which already produce the {@code R || S} form JWS requires.
+ */
+public class JwtMinter {
+
+    private static final byte[] BASE64URL = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_"
+            .getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SUB = bytes("{\"sub\":\"");
+    private static final byte[] JTI = bytes("\",\"jti\":\"");
+    private static final byte[] IAT = bytes("\",\"iat\":");
+    private static final byte[] EXP = bytes(",\"exp\":");
+
+    private final ConcurrentHashMap<String, EncodedHeader> headers = new ConcurrentHashMap<>();
+    private final Cache<String, byte[]> roleClaims;
+    private final ThreadLocal<Buffers> buffers = ThreadLocal.withInitial(Buffers::new);
+
+    public JwtMinter(long maxRoleEncodings) {
+        this.roleClaims = Caffeine.newBuilder().maximumSize(maxRoleEncodings).build();
+    }
+
+    /**
+     * Signs a token for {@code username}. Times are in seconds since the epoch, as JWT requires.
+     */
+    public String mint(SigningKey key, String username, String jti, long issuedAtSeconds, long expiresAtSeconds, String roles) {
+        Buffers buf = buffers.get();
+
+        buf.json.reset();
+        buf.json.write(SUB).writeJsonString(username)
+                .write(JTI).writeJsonString(jti)
+                .write(IAT).writeLong(issuedAtSeconds)
+                .write(EXP).writeLong(expiresAtSeconds)
+                .write(roleClaims.get(roles, JwtMinter::encodeRoles));
+
+        byte[] header = headerFor(key);
+        buf.token.reset();
+        buf.token.write(header);
+        buf.token.writeBase64Url(buf.json.bytes, buf.json.length);
+
+        try {
+            Signature signer = buf.signerFor(key);
+            signer.update(buf.token.bytes, 0, buf.token.length);
+            int signatureLength = signer.sign(buf.signature, 0, buf.signature.length);
+            buf.token.write((byte) '.');
+            buf.token.writeBase64Url(buf.signature, signatureLength);
+        } catch (GeneralSecurityException e) {
+            buf.discardSigner();
+            throw new RuntimeException("Failed to sign token with key " + key.kid(), e);
+        }
+        // Every byte is Base64url or '.', so Latin-1 decoding is a plain copy into a compact String
+        return new String(buf.token.bytes, 0, buf.token.length, StandardCharsets.ISO_8859_1);
+    }
+
+    private byte[] headerFor(SigningKey key) {
+        EncodedHeader cached = headers.get(key.kid());
+        if (cached != null && cached.key() == key) {
+            return cached.bytes();
+        }
+        // First use of this kid, or the key behind it was rotated
+        ByteSink json = new ByteSink(128);
+        json.write(bytes("{\"kid\":")).writeJsonQuoted(key.kid())
+                .write(bytes(",\"typ\":\"JWT\",\"alg\":")).writeJsonQuoted(key.algorithm().getId())
+                .write((byte) '}');
+        ByteSink encoded = new ByteSink(256);
+        encoded.writeBase64Url(json.bytes, json.length);
+        encoded.write((byte) '.');
+        byte[] header = Arrays.copyOf(encoded.bytes, encoded.length);
+        headers.put(key.kid(), new EncodedHeader(key, header));
+        return header;
+    }
+
+    private static byte[] encodeRoles(String roles) {
+        ByteSink json = new ByteSink(16 + roles.length() * 2);
+        json.write(bytes(",\"roles\":["));
+        String[] split = roles.split(",");
+        for (int i = 0; i < split.length; i++) {
+            if (i > 0) {
+                json.write((byte) ',');
+            }
+            json.writeJsonQuoted(split[i]);
+        }
+        json.write(bytes("]}"));
+        return Arrays.copyOf(json.bytes, json.length);
+    }
+
+    static String jcaAlgorithm(String jwsAlgorithm) {
+        return switch (jwsAlgorithm) {
+            case "RS256" -> "SHA256withRSA";
+            case "RS384" -> "SHA384withRSA";
+            case "RS512" -> "SHA512withRSA";
+            case "ES256" -> "SHA256withECDSAinP1363Format";
+            case "ES384" -> "SHA384withECDSAinP1363Format";
+            case "ES512" -> "SHA512withECDSAinP1363Format";
+            case "EdDSA" -> "EdDSA";
+            default -> throw new IllegalArgumentException("Unsupported JWS algorithm: " + jwsAlgorithm);
+        };
+    }
+
+    private static byte[] bytes(String ascii) {
+        return ascii.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private record EncodedHeader(SigningKey key, byte[] bytes) {
+    }
+
+    private static final class Buffers {
+
+        final ByteSink json = new ByteSink(512);
+        final ByteSink token = new ByteSink(1024);
+        // Large enough for RSA-8192, the biggest signature any supported key produces
+        final byte[] signature = new byte[1024];
+
+        private SigningKey signerKey;
+        private Signature signer;
+
+        Signature signerFor(SigningKey key) throws GeneralSecurityException {
+            if (key != signerKey) {
+                signer = Signature.getInstance(jcaAlgorithm(key.algorithm().getId()));
+                signer.initSign(key.privateKey());
+                signerKey = key;
+            }
+            // sign() leaves the instance initialized for the same key
+            return signer;
+        }
+
+        void discardSigner() {
+            signerKey = null;
+            signer = null;
+        }
+    }
+
+    /**
+     * Growable byte array with the few JSON and Base64url writers the token layout needs.
+     */
+    private static final class ByteSink {
+
+        byte[] bytes;
+        int length;
+
+        ByteSink(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        void reset() {
+            length = 0;
+        }
+
+        ByteSink write(byte b) {
+            ensureCapacity(1);
+            bytes[length++] = b;
+            return this;
+        }
+
+        ByteSink write(byte[] src) {
+            ensureCapacity(src.length);
+            System.arraycopy(src, 0, bytes, length, src.length);
+            length += src.length;
+            return this;
+        }
+
+        ByteSink writeLong(long value) {
+            // Timestamps are non-negative and at most 19 digits
+            ensureCapacity(19);
+            int digits = 1;
+            for (long rest = value / 10; rest > 0; rest /= 10) {
+                digits++;
+            }
+            int end = length + digits;
+            for (int i = end - 1; i >= length; i--) {
+                bytes[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            length = end;
+            return this;
+        }
+
+        ByteSink writeJsonQuoted(String value) {
+            return write((byte) '"').writeJsonString(value).write((byte) '"');
+        }
+
+        /**
+         * Writes {@code value} as UTF-8 with JSON escaping, without the surrounding quotes.
+         */
+        ByteSink writeJsonString(String value) {
+            ensureCapacity(value.length() * 6);
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    bytes[length++] = '\\';
+                    bytes[length++] = (byte) c;
+                } else if (c < 0x20) {
+                    bytes[length++] = '\\';
+                    bytes[length++] = 'u';
+                    bytes[length++] = '0';
+                    bytes[length++] = '0';
+                    bytes[length++] = (byte) Character.forDigit(c >> 4, 16);
+                    bytes[length++] = (byte) Character.forDigit(c & 0xF, 16);
+                } else if (c < 0x80) {
+                    bytes[length++] = (byte) c;
+                } else if (c < 0x800) {
+                    bytes[length++] = (byte) (0xC0 | c >> 6);
+                    bytes[length++] = (byte) (0x80 | c & 0x3F);
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    bytes[length++] = (byte) (0xF0 | codePoint >> 18);
+                    bytes[length++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                    bytes[length++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                    bytes[length++] = (byte) (0x80 | codePoint & 0x3F);
+                } else if (Character.isSurrogate(c)) {
+                    // Unpaired surrogates have no UTF-8 form; String.getBytes writes '?' as well
+                    bytes[length++] = '?';
+                } else {
+                    bytes[length++] = (byte) (0xE0 | c >> 12);
+                    bytes[length++] = (byte) (0x80 | c >> 6 & 0x3F);
+                    bytes[length++] = (byte) (0x80 | c & 0x3F);
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Appends the unpadded Base64url encoding of {@code src[0, srcLength)}.
+         */
+        ByteSink writeBase64Url(byte[] src, int srcLength) {
+            ensureCapacity((srcLength + 2) / 3 * 4);
+            int i = 0;
+            for (; i + 2 < srcLength; i += 3) {
+                int bits = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8 | src[i + 2] & 0xFF;
+                bytes[length++] = BASE64URL[bits >>> 18];
+                bytes[length++] = BASE64URL[bits >>> 12 & 0x3F];
+                bytes[length++] = BASE64URL[bits >>> 6 & 0x3F];
+                bytes[length++] = BASE64URL[bits & 0x3F];
+            }
+            int remaining = srcLength - i;
+            if (remaining == 1) {
+                int bits = (src[i] & 0xFF) << 16;
+                bytes[length++] = BASE64URL[bits >>> 18];
+                bytes[length++] = BASE64URL[bits >>> 12 & 0x3F];
+            } else if (remaining == 2) {
+                int bits = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8;
+                bytes[length++] = BASE64URL[bits >>> 18];
+                bytes[length++] = BASE64URL[bits >>> 12 & 0x3F];
+                bytes[length++] = BASE64URL[bits >>> 6 & 0x3F];
+            }
+            return this;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+    }
+}
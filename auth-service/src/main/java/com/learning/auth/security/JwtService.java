@@ -1,51 +1,164 @@
 package com.learning.auth.security;
 
-import io.jsonwebtoken.Jwts;
+import com.learning.tokenstore.ReactiveTimers;
+import com.learning.tokenstore.TokenKeyFormat;
+import com.learning.tokenstore.TokenKeys;
+import com.learning.tokenstore.TokenStore;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.security.interfaces.RSAPrivateKey;
 import java.time.Duration;
-import java.util.Date;
-import java.util.Map;
-import java.util.UUID;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class JwtService {
 
-    private final PrivateKeyLoader privateKeyLoader;
+    private final JwtCodec codec;
+
+    private final SigningExecutor signingExecutor;
+
+    private final TokenRegistrationPipeline registrationPipeline;
+
+    private final SessionIndex sessionIndex;
+
+    private final TokenStore tokenStore;
 
     private final ReactiveRedisTemplate<String, String> activeTokensCache;
 
-    public JwtService(PrivateKeyLoader privateKeyLoader,
-                      @Qualifier("activeTokensCache") ReactiveRedisTemplate<String, String> activeTokensCache) {
-        this.privateKeyLoader = privateKeyLoader;
+    private final String revocationChannel;
+
+    private final String revokedSet;
+
+    private final TokenKeyFormat keyFormat;
+
+    private final Timer issueTime;
+
+    private final Counter revocations;
+
+    public JwtService(JwtCodec codec,
+                      SigningExecutor signingExecutor,
+                      TokenRegistrationPipeline registrationPipeline,
+                      SessionIndex sessionIndex,
+                      TokenStore tokenStore,
+                      @Qualifier("activeTokensCache") ReactiveRedisTemplate<String, String> activeTokensCache,
+                      MeterRegistry meterRegistry,
+                      @Value("${tokens.revocation-channel:token-revocations}") String revocationChannel,
+                      @Value("${tokens.revoked-set:revoked-jtis}") String revokedSet,
+                      @Value("${tokens.key-format:jti}") TokenKeyFormat keyFormat) {
+        this.codec = codec;
+        this.signingExecutor = signingExecutor;
+        this.registrationPipeline = registrationPipeline;
+        this.sessionIndex = sessionIndex;
+        this.tokenStore = tokenStore;
         this.activeTokensCache = activeTokensCache;
+        this.revocationChannel = revocationChannel;
+        this.revokedSet = revokedSet;
+        this.keyFormat = keyFormat;
+        this.issueTime = Timer.builder("tokens.issue.duration")
+                .description("Signing plus whitelist registration of an access token")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.revocations = Counter.builder("tokens.revoked")
+                .description("Access tokens revoked through /oauth/revoke")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Signs a token on the {@link SigningExecutor} pool and registers it in the whitelist. Completes only
+     * once Redis has acknowledged the write; fails with {@link SigningCapacityExceededException} when the
+     * pool is saturated and with {@link TokenRegistrationException} when the write fails.
+     */
+    public Mono<String> generateToken(String username, String roles) {
+        return ReactiveTimers.timed(issueTime, signingExecutor.submit(() -> codec.signToken(username, roles))
+                // Store token in Redis for its lifetime, batched with concurrent logins, and index it under the user
+                .flatMap(issued -> Mono.when(
+                                registrationPipeline.register(keyFormat.keys(issued.token(), issued.jti()), username, accessTokenTtl()),
+                                sessionIndex.add(username, issued.jti(), issued.expiresAt())
+                                        .onErrorMap(TokenRegistrationException::new))
+                        .thenReturn(issued.token())));
+    }
+
+    public Duration accessTokenTtl() {
+        return codec.accessTokenTtl();
+    }
+
+    public Mono<Boolean> revokeToken(String token) {
+        Claims claims = codec.parseVerified(token);
+        if (claims == null) {
+            // Expired, foreign or malformed: there is nothing in the whitelist to remove
+            return Mono.just(false);
+        }
+        String jti = claims.getId();
+        long expiresAtSeconds = claims.getExpiration().getTime() / 1000;
+
+        // Resource-service nodes keep a near-cache of active tokens; tell them to drop this one
+        return tokenStore.delete(keyFormat.keys(token, jti))
+                .map(deleted -> deleted > 0)
+                .doOnNext(deleted -> {
+                    if (deleted) {
+                        revocations.increment();
+                    }
+                })
+                .flatMap(deleted -> recordRevocation(jti, expiresAtSeconds)
+                        .then(activeTokensCache.convertAndSend(revocationChannel, jti))
+                        .then(sessionIndex.remove(claims.getSubject(), List.of(jti)))
+                        .thenReturn(deleted));
+    }
+
+    /**
+     * Revokes every live access token of {@code username} except {@code exceptJti} (may be {@code null}),
+     * found through the {@link SessionIndex}. Emits the number of tokens revoked.
+     * <p>
+     * Only {@code jti:} whitelist keys can be derived from the index; with {@code tokens.key-format=token}
+     * the full-token keys stay until they expire, and only the deny set and near-caches are updated.
+     */
+    public Mono<Long> revokeSessions(String username, String exceptJti) {
+        return sessionIndex.live(username)
+                .filter(session -> !session.jti().equals(exceptJti))
+                .collectList()
+                .flatMap(sessions -> {
+                    if (sessions.isEmpty()) {
+                        return Mono.just(0L);
+                    }
+                    List<String> jtis = sessions.stream().map(SessionIndex.Session::jti).toList();
+                    Set<ZSetOperations.TypedTuple<String>> revoked = sessions.stream()
+                            .map(session -> ZSetOperations.TypedTuple.of(session.jti(), (double) session.expiresAt().getEpochSecond()))
+                            .collect(Collectors.toSet());
+                    return Mono.when(
+                                    tokenStore.delete(jtis.stream().map(TokenKeys::forJti).toList()),
+                                    activeTokensCache.opsForZSet().addAll(revokedSet, revoked),
+                                    Flux.fromIterable(jtis).flatMap(jti -> activeTokensCache.convertAndSend(revocationChannel, jti)),
+                                    sessionIndex.remove(username, jtis))
+                            .then(trimRevokedSet())
+                            .thenReturn((long) jtis.size());
+                });
     }
 
-    public String generateToken(String username, String roles) {
-        RSAPrivateKey privateKey = privateKeyLoader.loadPrivateKey();
-        long now = System.currentTimeMillis();
-        long expiry = now + 3600000; // 1 hour
-
-        String token = Jwts.builder()
-                .header().add("typ", "JWT").and()
-                .subject(username)
-                .id(UUID.randomUUID().toString())
-                .issuedAt(new Date(now))
-                .expiration(new Date(expiry))
-                .claims(Map.of("roles", roles.split(",")))
-                .signWith(privateKey, Jwts.SIG.RS256)
-                .compact();
-
-        // Store token in Redis with 1 hour TTL (fire and forget style for this demo, or block if strict)
-        activeTokensCache.opsForValue().set(token, username, Duration.ofHours(1)).subscribe();
-
-        return token;
+    /**
+     * Adds the jti to the deny set used by resource-service in revocation-list mode. Members are scored
+     * by the token's expiry, and expired ones are trimmed on each write.
+     */
+    private Mono<Void> recordRevocation(String jti, long expiresAtSeconds) {
+        return activeTokensCache.opsForZSet().add(revokedSet, jti, expiresAtSeconds)
+                .then(trimRevokedSet());
     }
 
-    public reactor.core.publisher.Mono<Boolean> revokeToken(String token) {
-        return activeTokensCache.opsForValue().delete(token);
+    private Mono<Void> trimRevokedSet() {
+        long nowSeconds = System.currentTimeMillis() / 1000;
+        return activeTokensCache.opsForZSet()
+                .removeRangeByScore(revokedSet, Range.leftUnbounded(Range.Bound.inclusive((double) nowSeconds)))
+                .then();
     }
 }
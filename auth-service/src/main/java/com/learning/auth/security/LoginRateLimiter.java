@@ -0,0 +1,265 @@
+package com.learning.auth.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Throttles {@code /oauth/token} per client IP and, for failed password checks, per username.
+ * <p>
+ * Every request takes a permit from its client IP's bucket before any user lookup or signing. Failed
+ * password checks are charged by {@link #recordFailure} to two buckets: one per username and client IP,
+ * which stops a single address early, and one per username alone, with a higher limit, which stops
+ * guessing against one account spread over many addresses. Correct logins never use either, and the
+ * higher username limit keeps an attacker from locking an account out cheaply; {@link #acquire} only
+ * checks that both still have a permit.
+ * <p>
+ * Each key gets an in-memory token bucket, stored as a single "theoretical arrival time" updated with
+ * CAS (GCRA), so the fast path takes no lock. Buckets live in a bounded Caffeine cache and expire once
+ * they would be full again, which keeps memory flat under IP or username spraying.
+ * <p>
+ * With {@code auth.rate-limit.global.enabled}, requests that pass locally (and failures) are also counted
+ * in a fixed-window Redis counter per key, so the budget holds across nodes. Redis errors fail open: the
+ * local buckets still apply.
+ */
+@Slf4j
+@Component
+public class LoginRateLimiter {
+
+    private static final String GLOBAL_PREFIX = "rl:";
+
+    private final Limit ipLimit;
+    private final Limit ipUsernameLimit;
+    private final Limit usernameLimit;
+    private final Cache<String, Bucket> ipBuckets;
+    private final Cache<String, Bucket> ipUsernameBuckets;
+    private final Cache<String, Bucket> usernameBuckets;
+
+    private final ReactiveRedisTemplate<String, String> activeTokensCache;
+    private final boolean globalEnabled;
+    private final Duration globalWindow;
+    private final long globalIpLimit;
+    private final long globalIpUsernameLimit;
+    private final long globalUsernameLimit;
+
+    private final Map<String, Counter> rejections;
+
+    public LoginRateLimiter(@Qualifier("activeTokensCache") ReactiveRedisTemplate<String, String> activeTokensCache,
+                            MeterRegistry meterRegistry,
+                            @Value("${auth.rate-limit.max-tracked-keys:100000}") long maxTrackedKeys,
+                            @Value("${auth.rate-limit.ip.burst:50}") int ipBurst,
+                            @Value("${auth.rate-limit.ip.permits-per-second:10}") double ipRate,
+                            @Value("${auth.rate-limit.ip-username.burst:10}") int ipUsernameBurst,
+                            @Value("${auth.rate-limit.ip-username.permits-per-second:0.2}") double ipUsernameRate,
+                            @Value("${auth.rate-limit.username.burst:50}") int usernameBurst,
+                            @Value("${auth.rate-limit.username.permits-per-second:0.5}") double usernameRate,
+                            @Value("${auth.rate-limit.global.enabled:false}") boolean globalEnabled,
+                            @Value("${auth.rate-limit.global.window:1m}") Duration globalWindow,
+                            @Value("${auth.rate-limit.global.ip-limit:600}") long globalIpLimit,
+                            @Value("${auth.rate-limit.global.ip-username-limit:20}") long globalIpUsernameLimit,
+                            @Value("${auth.rate-limit.global.username-limit:100}") long globalUsernameLimit) {
+        this.activeTokensCache = activeTokensCache;
+        this.ipLimit = Limit.of(ipBurst, ipRate);
+        this.ipUsernameLimit = Limit.of(ipUsernameBurst, ipUsernameRate);
+        this.usernameLimit = Limit.of(usernameBurst, usernameRate);
+        this.ipBuckets = buckets(maxTrackedKeys, ipLimit);
+        this.ipUsernameBuckets = buckets(maxTrackedKeys, ipUsernameLimit);
+        this.usernameBuckets = buckets(maxTrackedKeys, usernameLimit);
+        this.globalEnabled = globalEnabled;
+        this.globalWindow = globalWindow;
+        this.globalIpLimit = globalIpLimit;
+        this.globalIpUsernameLimit = globalIpUsernameLimit;
+        this.globalUsernameLimit = globalUsernameLimit;
+        this.rejections = Stream.of("ip", "ip-username", "username", "global-ip", "global-ip-username", "global-username")
+                .collect(Collectors.toUnmodifiableMap(scope -> scope, scope -> Counter.builder("auth.rate.limit.rejected")
+                        .description("Token requests rejected by the login rate limiter")
+                        .tag("scope", scope)
+                        .register(meterRegistry)));
+    }
+
+    /**
+     * Takes one permit for {@code clientIp} and, when {@code username} is given, checks that the username has
+     * failures left, from that IP and overall. Completes empty when the request may proceed, or fails with
+     * {@link RateLimitExceededException}.
+     */
+    public Mono<Void> acquire(String clientIp, String username) {
+        long now = System.nanoTime();
+        long waitNanos = ipBuckets.get(clientIp, key -> new Bucket()).tryAcquire(ipLimit, now);
+        if (waitNanos > 0) {
+            return reject("ip", Duration.ofNanos(waitNanos));
+        }
+        if (username != null) {
+            waitNanos = waitNanos(ipUsernameBuckets, ipUsernameKey(clientIp, username), ipUsernameLimit, now);
+            if (waitNanos > 0) {
+                return reject("ip-username", Duration.ofNanos(waitNanos));
+            }
+            waitNanos = waitNanos(usernameBuckets, username, usernameLimit, now);
+            if (waitNanos > 0) {
+                return reject("username", Duration.ofNanos(waitNanos));
+            }
+        }
+        if (!globalEnabled) {
+            return Mono.empty();
+        }
+        Mono<Void> ipBudget = acquireGlobal("ip", clientIp, globalIpLimit);
+        return username == null ? ipBudget : ipBudget
+                .then(checkGlobal("ip-username", ipUsernameKey(clientIp, username), globalIpUsernameLimit))
+                .then(checkGlobal("username", username, globalUsernameLimit));
+    }
+
+    /**
+     * Charges a failed password check to the buckets of {@code username}, from {@code clientIp} and overall,
+     * and to their Redis counters when the global budget is enabled.
+     */
+    public Mono<Void> recordFailure(String clientIp, String username) {
+        String ipUsernameKey = ipUsernameKey(clientIp, username);
+        long now = System.nanoTime();
+        ipUsernameBuckets.get(ipUsernameKey, k -> new Bucket()).tryAcquire(ipUsernameLimit, now);
+        usernameBuckets.get(username, k -> new Bucket()).tryAcquire(usernameLimit, now);
+        if (!globalEnabled) {
+            return Mono.empty();
+        }
+        return count("ip-username", ipUsernameKey)
+                .then(count("username", username))
+                .then()
+                .onErrorResume(e -> {
+                    log.warn("Failed to record login failure in Redis, falling back to local limits", e);
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Client IPs contain no {@code '/'}, so the key is unambiguous whatever the username holds.
+     */
+    private static String ipUsernameKey(String clientIp, String username) {
+        return clientIp + "/" + username;
+    }
+
+    private static long waitNanos(Cache<String, Bucket> buckets, String key, Limit limit, long now) {
+        Bucket failures = buckets.getIfPresent(key);
+        return failures == null ? 0 : failures.waitNanos(limit, now);
+    }
+
+    private Mono<Void> acquireGlobal(String scope, String key, long limit) {
+        return count(scope, key)
+                .flatMap(count -> count > limit
+                        ? reject("global-" + scope, untilNextWindow())
+                        : Mono.<Void>empty())
+                .onErrorResume(e -> !(e instanceof RateLimitExceededException), e -> {
+                    log.warn("Global rate limit check failed, falling back to local limits", e);
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Like {@link #acquireGlobal} but read-only: rejects once the window already holds {@code limit} counts.
+     */
+    private Mono<Void> checkGlobal(String scope, String key, long limit) {
+        return activeTokensCache.opsForValue().get(globalKey(scope, key, currentWindow()))
+                .map(Long::parseLong)
+                .flatMap(count -> count >= limit
+                        ? reject("global-" + scope, untilNextWindow())
+                        : Mono.<Void>empty())
+                .onErrorResume(e -> !(e instanceof RateLimitExceededException), e -> {
+                    log.warn("Global rate limit check failed, falling back to local limits", e);
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Increments the counter of {@code key} in the current window and emits its new value.
+     */
+    private Mono<Long> count(String scope, String key) {
+        String redisKey = globalKey(scope, key, currentWindow());
+        return activeTokensCache.opsForValue().increment(redisKey)
+                .flatMap(count -> count == 1
+                        ? activeTokensCache.expire(redisKey, globalWindow).thenReturn(count)
+                        : Mono.just(count));
+    }
+
+    private long currentWindow() {
+        return System.currentTimeMillis() / globalWindow.toMillis();
+    }
+
+    private Duration untilNextWindow() {
+        long windowMillis = globalWindow.toMillis();
+        return Duration.ofMillis(windowMillis - System.currentTimeMillis() % windowMillis);
+    }
+
+    private static String globalKey(String scope, String key, long window) {
+        return GLOBAL_PREFIX + scope + ":" + key + ":" + window;
+    }
+
+    private Mono<Void> reject(String scope, Duration retryAfter) {
+        rejections.get(scope).increment();
+        return Mono.error(new RateLimitExceededException(scope, retryAfter));
+    }
+
+    private static Cache<String, Bucket> buckets(long maxTrackedKeys, Limit limit) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxTrackedKeys)
+                // An idle bucket is full again after burst * interval; dropping it then changes nothing
+                .expireAfterAccess(limit.burst() * limit.intervalNanos(), TimeUnit.NANOSECONDS)
+                .build();
+    }
+
+    record Limit(long burst, long intervalNanos) {
+
+        static Limit of(int burst, double permitsPerSecond) {
+            return new Limit(burst, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        }
+    }
+
+    /**
+     * Token bucket as a GCRA: {@code arrival} is when the bucket would be full again; a request is allowed
+     * if that is no more than {@code (burst - 1) * interval} ahead of now.
+     */
+    static final class Bucket {
+
+        private final AtomicLong arrival = new AtomicLong(Long.MIN_VALUE);
+
+        /**
+         * Returns 0 if a permit was taken, otherwise the nanoseconds until one is available.
+         */
+        long tryAcquire(Limit limit, long now) {
+            long tolerance = (limit.burst() - 1) * limit.intervalNanos();
+            while (true) {
+                long current = arrival.get();
+                long base = current == Long.MIN_VALUE || current - now < 0 ? now : current;
+                long ahead = base - now;
+                if (ahead > tolerance) {
+                    return ahead - tolerance;
+                }
+                if (arrival.compareAndSet(current, base + limit.intervalNanos())) {
+                    return 0;
+                }
+            }
+        }
+
+        /**
+         * Like {@link #tryAcquire} without taking the permit.
+         */
+        long waitNanos(Limit limit, long now) {
+            long current = arrival.get();
+            if (current == Long.MIN_VALUE) {
+                return 0;
+            }
+            long ahead = current - now;
+            return Math.max(0, ahead - (limit.burst() - 1) * limit.intervalNanos());
+        }
+    }
+}
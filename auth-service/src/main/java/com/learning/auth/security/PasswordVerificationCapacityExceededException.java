@@ -0,0 +1,11 @@
+package com.learning.auth.security;
+
+/**
+ * Raised when the password hashing pool's queue is full; the request should be retried later (HTTP 503).
+ */
+public class PasswordVerificationCapacityExceededException extends RuntimeException {
+
+    public PasswordVerificationCapacityExceededException() {
+        super("Password verification capacity exceeded");
+    }
+}
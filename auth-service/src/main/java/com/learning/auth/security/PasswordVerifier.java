@@ -0,0 +1,173 @@
+package com.learning.auth.security;
+
+import com.learning.auth.domain.UserCredentials;
+import com.learning.auth.persistence.UserCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Checks login passwords against stored {@code {bcrypt}} (or legacy {@code {noop}}) hashes.
+ * <p>
+ * Hashing runs on its own bounded pool, separate from the signing pool, so a burst of logins cannot
+ * starve token signing and never blocks the event loop. When {@code auth.passwords.queue-capacity}
+ * checks are already waiting, new ones fail fast with {@link PasswordVerificationCapacityExceededException}.
+ * By default the pool takes half the cores and the signing pool the rest.
+ * <p>
+ * Unknown usernames are checked against a dummy hash of the current cost, so a login for a user that does
+ * not exist takes as long as one with a wrong password and response times do not reveal which names exist.
+ * Legacy {@code {noop}} passwords compare instantly, so they are also charged one dummy hash until rehashed.
+ * <p>
+ * On startup the BCrypt cost is calibrated to the largest value whose hash takes at most
+ * {@code auth.passwords.target-verification-time} on this machine (never below {@code auth.passwords.min-cost}).
+ * After a successful login, {@code {noop}} passwords and BCrypt hashes with a lower cost are rehashed and saved.
+ */
+@Slf4j
+@Component
+public class PasswordVerifier {
+
+    private static final String BCRYPT_ID = "bcrypt";
+    private static final String NOOP_PREFIX = "{noop}";
+    private static final int MAX_COST = 16;
+
+    private final UserCache userCache;
+    private final BoundedWorkerPool pool;
+    private final Duration targetVerificationTime;
+    private final int minCost;
+
+    private final Counter rehashed;
+
+    private volatile PasswordEncoder encoder;
+    private volatile String dummyHash;
+
+    public PasswordVerifier(UserCache userCache,
+                            MeterRegistry meterRegistry,
+                            @Value("${auth.passwords.threads:0}") int threads,
+                            @Value("${auth.passwords.queue-capacity:64}") int queueCapacity,
+                            @Value("${auth.passwords.target-verification-time:100ms}") Duration targetVerificationTime,
+                            @Value("${auth.passwords.min-cost:10}") int minCost) {
+        this.userCache = userCache;
+        this.targetVerificationTime = targetVerificationTime;
+        this.minCost = minCost;
+        Timer verificationTime = Timer.builder("auth.passwords.verification.duration")
+                .description("Time spent hashing a login password on the worker")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.pool = new BoundedWorkerPool("password-hashing-",
+                threads > 0 ? threads : BoundedWorkerPool.defaultHashingThreads(),
+                queueCapacity,
+                PasswordVerificationCapacityExceededException::new,
+                meterRegistry,
+                "auth.passwords",
+                verificationTime);
+        this.rehashed = Counter.builder("auth.passwords.rehashed")
+                .description("Stored passwords upgraded to the current hash and cost")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void calibrate() {
+        int cost = calibratedCost();
+        PasswordEncoder calibrated = new DelegatingPasswordEncoder(BCRYPT_ID, Map.of(
+                BCRYPT_ID, new BCryptPasswordEncoder(cost),
+                "noop", NoOpPasswordEncoder.getInstance()));
+        dummyHash = calibrated.encode(UUID.randomUUID().toString());
+        encoder = calibrated;
+        log.info("BCrypt cost calibrated to {} (target {} per verification)", cost, targetVerificationTime);
+    }
+
+    /**
+     * Looks {@code username} up and emits it if {@code rawPassword} matches, or completes empty when the
+     * user is unknown or the password is wrong. Both cases cost one hash.
+     */
+    public Mono<UserCredentials> authenticate(String username, String rawPassword) {
+        return userCache.findByUsername(username)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(user -> user.isPresent()
+                        ? verify(user.get(), rawPassword).filter(Boolean::booleanValue).map(matches -> user.get())
+                        : verifyUnknownUser(rawPassword).then(Mono.<UserCredentials>empty()));
+    }
+
+    /**
+     * Emits whether {@code rawPassword} matches the stored hash, upgrading the hash when it is outdated.
+     */
+    public Mono<Boolean> verify(UserCredentials user, String rawPassword) {
+        PasswordEncoder current = encoder;
+        String hash = dummyHash;
+        return pool.submit(() -> check(current, hash, user.password(), rawPassword))
+                .flatMap(verification -> verification.upgradedHash() == null
+                        ? Mono.just(verification.matches())
+                        : upgrade(user.username(), verification.upgradedHash()).thenReturn(verification.matches()));
+    }
+
+    private Mono<Boolean> verifyUnknownUser(String rawPassword) {
+        PasswordEncoder current = encoder;
+        String hash = dummyHash;
+        return pool.submit(() -> current.matches(rawPassword, hash));
+    }
+
+    private static Verification check(PasswordEncoder encoder, String dummyHash, String encodedPassword, String rawPassword) {
+        if (encodedPassword.startsWith(NOOP_PREFIX)) {
+            // Otherwise a legacy user answers a wrong password faster than an unknown name does
+            encoder.matches(rawPassword, dummyHash);
+        }
+        if (!encoder.matches(rawPassword, encodedPassword)) {
+            return new Verification(false, null);
+        }
+        // The password is known to be right here, so the new hash is computed while we are on the worker
+        String upgradedHash = encoder.upgradeEncoding(encodedPassword) ? encoder.encode(rawPassword) : null;
+        return new Verification(true, upgradedHash);
+    }
+
+    private Mono<Void> upgrade(String username, String upgradedHash) {
+        return userCache.updatePassword(username, upgradedHash)
+                .doOnSuccess(ignored -> rehashed.increment())
+                // The login itself succeeded; a failed upgrade is retried on the next one
+                .onErrorResume(e -> {
+                    log.warn("Failed to rehash password for {}", username, e);
+                    return Mono.empty();
+                });
+    }
+
+    private int calibratedCost() {
+        // BCrypt time doubles with each cost step, so one sample at the minimum cost is enough to extrapolate
+        BCryptPasswordEncoder sampler = new BCryptPasswordEncoder(minCost);
+        sampler.encode("calibration");
+        long sampleNanos = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long startedAt = System.nanoTime();
+            sampler.encode("calibration");
+            sampleNanos = Math.min(sampleNanos, System.nanoTime() - startedAt);
+        }
+        long targetNanos = targetVerificationTime.toNanos();
+        int cost = minCost;
+        while (cost < MAX_COST && sampleNanos << (cost + 1 - minCost) <= targetNanos) {
+            cost++;
+        }
+        return cost;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private record Verification(boolean matches, String upgradedHash) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.learning.auth.security;
+
+import java.time.Duration;
+
+/**
+ * Raised when a client IP or username has used up its login budget; answered with HTTP 429 and
+ * {@code Retry-After}.
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public RateLimitExceededException(String scope, Duration retryAfter) {
+        super("Rate limit exceeded for " + scope);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration retryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,168 @@
+package com.learning.auth.security;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque, rotating refresh tokens kept in Redis.
+ * <p>
+ * Only a SHA-256 digest of each token is stored, under {@code rt:<digest>} with the value
+ * {@code <family>:<username>}. Every refresh consumes the token and issues a new one in the same family;
+ * the consumed key is left behind as a tombstone. Presenting a consumed token again means it leaked, so the
+ * whole family (marker {@code rtf:<family>}) is revoked and the current holder has to log in again.
+ * The families of each user are listed in the set {@code rtu:<username>}, so they can all be revoked at once.
+ * <p>
+ * The refresh grant looks the token up with {@link #holder} and only {@link #rotate}s it once the new access
+ * token has been issued: if signing or the whitelist write fails, the client can retry with the same token
+ * instead of tripping reuse detection.
+ */
+@Service
+public class RefreshTokenService {
+
+    static final String TOKEN_PREFIX = "rt:";
+    static final String FAMILY_PREFIX = "rtf:";
+    static final String USER_FAMILIES_PREFIX = "rtu:";
+    private static final String TOMBSTONE = "!";
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final ReactiveRedisTemplate<String, String> activeTokensCache;
+    private final Duration refreshTokenTtl;
+
+    public RefreshTokenService(@Qualifier("activeTokensCache") ReactiveRedisTemplate<String, String> activeTokensCache,
+                               @Value("${tokens.refresh-token-ttl:14d}") Duration refreshTokenTtl) {
+        this.activeTokensCache = activeTokensCache;
+        this.refreshTokenTtl = refreshTokenTtl;
+    }
+
+    /**
+     * Starts a new token family for a password login.
+     */
+    public Mono<String> issue(String username) {
+        return store(UUID.randomUUID().toString(), username);
+    }
+
+    /**
+     * Emits the username {@code refreshToken} was issued to, without consuming it, or completes empty when
+     * the token is unknown, expired, already used or belongs to a revoked family.
+     */
+    public Mono<String> holder(String refreshToken) {
+        return activeTokensCache.opsForValue().get(TOKEN_PREFIX + digest(refreshToken))
+                .flatMap(this::liveHolder)
+                .map(Holder::username);
+    }
+
+    /**
+     * Consumes {@code refreshToken} and emits its successor, or completes empty when the token is unknown,
+     * expired, already used or belongs to a revoked family.
+     */
+    public Mono<RefreshedToken> rotate(String refreshToken) {
+        String key = TOKEN_PREFIX + digest(refreshToken);
+        return activeTokensCache.opsForValue().getAndDelete(key)
+                .flatMap(this::liveHolder)
+                .flatMap(holder -> activeTokensCache.opsForValue()
+                        .set(key, TOMBSTONE + holder.family(), refreshTokenTtl)
+                        .then(store(holder.family(), holder.username()))
+                        .map(next -> new RefreshedToken(holder.username(), next)));
+    }
+
+    /**
+     * Revokes the family of {@code refreshToken}; emits whether the token was known.
+     */
+    public Mono<Boolean> revoke(String refreshToken) {
+        return activeTokensCache.opsForValue().get(TOKEN_PREFIX + digest(refreshToken))
+                .map(RefreshTokenService::familyOf)
+                .flatMap(family -> activeTokensCache.delete(FAMILY_PREFIX + family))
+                .map(deleted -> deleted > 0)
+                .defaultIfEmpty(false);
+    }
+
+    /**
+     * Revokes every refresh token family of {@code username}, except the one {@code keptRefreshToken}
+     * belongs to (may be {@code null}). Emits the number of families revoked.
+     */
+    public Mono<Long> revokeFamilies(String username, String keptRefreshToken) {
+        Mono<String> keptFamily = keptRefreshToken == null
+                ? Mono.just("")
+                : activeTokensCache.opsForValue().get(TOKEN_PREFIX + digest(keptRefreshToken))
+                        .map(RefreshTokenService::familyOf)
+                        .defaultIfEmpty("");
+        String userFamilies = USER_FAMILIES_PREFIX + username;
+        return keptFamily.flatMap(kept -> activeTokensCache.opsForSet().members(userFamilies)
+                .filter(family -> !family.equals(kept))
+                .collectList()
+                .flatMap(families -> families.isEmpty()
+                        ? Mono.just(0L)
+                        : Mono.when(
+                                        activeTokensCache.delete(families.stream().map(family -> FAMILY_PREFIX + family).toArray(String[]::new)),
+                                        activeTokensCache.opsForSet().remove(userFamilies, families.toArray()))
+                                .thenReturn((long) families.size())));
+    }
+
+    public Duration refreshTokenTtl() {
+        return refreshTokenTtl;
+    }
+
+    private Mono<String> store(String family, String username) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String token = ENCODER.encodeToString(bytes);
+        // The family outlives any single token: it is extended on every rotation, as is the user's family set
+        String userFamilies = USER_FAMILIES_PREFIX + username;
+        return Mono.when(
+                        activeTokensCache.opsForValue().set(TOKEN_PREFIX + digest(token), family + ":" + username, refreshTokenTtl),
+                        activeTokensCache.opsForValue().set(FAMILY_PREFIX + family, username, refreshTokenTtl),
+                        activeTokensCache.opsForSet().add(userFamilies, family),
+                        activeTokensCache.expire(userFamilies, refreshTokenTtl))
+                .thenReturn(token);
+    }
+
+    /**
+     * The family and user of a stored token value, if its family is still live. A tombstone means a rotated
+     * token was presented again: the family is revoked so neither party can continue with it.
+     */
+    private Mono<Holder> liveHolder(String value) {
+        if (value.startsWith(TOMBSTONE)) {
+            return activeTokensCache.delete(FAMILY_PREFIX + value.substring(TOMBSTONE.length()))
+                    .then(Mono.empty());
+        }
+        int separator = value.indexOf(':');
+        Holder holder = new Holder(value.substring(0, separator), value.substring(separator + 1));
+        return activeTokensCache.hasKey(FAMILY_PREFIX + holder.family())
+                .filter(Boolean::booleanValue)
+                .map(live -> holder);
+    }
+
+    private static String familyOf(String value) {
+        return value.startsWith(TOMBSTONE)
+                ? value.substring(TOMBSTONE.length())
+                : value.substring(0, value.indexOf(':'));
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return ENCODER.encodeToString(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Failed to hash refresh token", e);
+        }
+    }
+
+    public record RefreshedToken(String username, String refreshToken) {
+    }
+
+    private record Holder(String family, String username) {
+    }
+}
@@ -1,23 +1,90 @@
 package com.learning.auth.security;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.web.server.ManagementPortType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+import org.springframework.security.oauth2.server.resource.authentication.ReactiveJwtAuthenticationConverterAdapter;
 import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
 
 @Configuration
 @EnableWebFluxSecurity
 public class SecurityConfig {
 
+    /**
+     * Introspection reveals whether a token is live and whose it is, so only registered clients may call it.
+     */
     @Bean
-    public SecurityWebFilterChain springSecurityFilterChain(ServerHttpSecurity http) {
+    @Order(1)
+    public SecurityWebFilterChain introspectionFilterChain(ServerHttpSecurity http,
+                                                           @Value("${auth.introspection.client-id:resource-server}") String clientId,
+                                                           @Value("${auth.introspection.client-secret:}") String clientSecret) {
         return http
+                .securityMatcher(ServerWebExchangeMatchers.pathMatchers("/oauth/introspect", "/oauth/introspect/batch"))
                 .csrf(ServerHttpSecurity.CsrfSpec::disable)
                 .authorizeExchange(exchanges -> exchanges
-                        .pathMatchers("/oauth/token", "/oauth/revoke").permitAll()
+                        .anyExchange().hasRole(IntrospectionClientAuthenticationManager.ROLE)
+                )
+                .httpBasic(basic -> basic
+                        .authenticationManager(new IntrospectionClientAuthenticationManager(clientId, clientSecret))
+                )
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .build();
+    }
+
+    /**
+     * Session management acts for the user of the bearer token, checked like any introspected token.
+     */
+    @Bean
+    @Order(2)
+    public SecurityWebFilterChain sessionsFilterChain(ServerHttpSecurity http, TokenIntrospector tokenIntrospector) {
+        JwtGrantedAuthoritiesConverter authorities = new JwtGrantedAuthoritiesConverter();
+        authorities.setAuthoritiesClaimName("roles");
+        authorities.setAuthorityPrefix("ROLE_");
+        JwtAuthenticationConverter authenticationConverter = new JwtAuthenticationConverter();
+        authenticationConverter.setJwtGrantedAuthoritiesConverter(authorities);
+        return http
+                .securityMatcher(ServerWebExchangeMatchers.pathMatchers("/oauth/sessions", "/oauth/sessions/*"))
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .authorizeExchange(exchanges -> exchanges
+                        .pathMatchers(HttpMethod.DELETE, "/oauth/sessions/*").hasRole("ADMIN")
                         .anyExchange().authenticated()
                 )
+                .oauth2ResourceServer(oauth2 -> oauth2
+                        .jwt(jwt -> jwt
+                                .jwtDecoder(new IntrospectingJwtDecoder(tokenIntrospector))
+                                .jwtAuthenticationConverter(new ReactiveJwtAuthenticationConverterAdapter(authenticationConverter))
+                        )
+                )
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .build();
+    }
+
+    @Bean
+    @Order(3)
+    public SecurityWebFilterChain springSecurityFilterChain(ServerHttpSecurity http, Environment environment) {
+        // Metrics are only open when actuator listens on its own port (management.server.port), kept off the public network
+        boolean separateManagementPort = ManagementPortType.get(environment) == ManagementPortType.DIFFERENT;
+        return http
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .authorizeExchange(exchanges -> {
+                    exchanges
+                            .pathMatchers("/oauth/token", "/oauth/revoke", "/.well-known/jwks.json").permitAll()
+                            .pathMatchers("/actuator/health/**").permitAll();
+                    if (separateManagementPort) {
+                        exchanges.pathMatchers("/actuator/prometheus").permitAll();
+                    }
+                    exchanges.anyExchange().authenticated();
+                })
                 .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
                 .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
                 .build();
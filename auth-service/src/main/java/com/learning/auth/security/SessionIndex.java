@@ -0,0 +1,57 @@
+package com.learning.auth.security;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * Per-user index of live access tokens: a sorted set {@code sessions:<username>} of jtis scored by expiry.
+ * <p>
+ * Expired members are trimmed on every write and the key itself expires with the user's newest token, so
+ * the index never needs a keyspace scan: listing or revoking a user's sessions costs O(k) in the number of
+ * tokens that user holds.
+ */
+@Component
+public class SessionIndex {
+
+    static final String KEY_PREFIX = "sessions:";
+
+    private final ReactiveRedisTemplate<String, String> activeTokensCache;
+
+    public SessionIndex(@Qualifier("activeTokensCache") ReactiveRedisTemplate<String, String> activeTokensCache) {
+        this.activeTokensCache = activeTokensCache;
+    }
+
+    public Mono<Void> add(String username, String jti, Instant expiresAt) {
+        String key = KEY_PREFIX + username;
+        double nowSeconds = Instant.now().getEpochSecond();
+        // Subscribed in order on the shared connection, so the three commands go out pipelined
+        return Mono.when(
+                activeTokensCache.opsForZSet().add(key, jti, expiresAt.getEpochSecond()),
+                activeTokensCache.opsForZSet().removeRangeByScore(key, Range.leftUnbounded(Range.Bound.inclusive(nowSeconds))),
+                activeTokensCache.expireAt(key, expiresAt));
+    }
+
+    public Flux<Session> live(String username) {
+        double nowSeconds = Instant.now().getEpochSecond();
+        return activeTokensCache.opsForZSet()
+                .rangeByScoreWithScores(KEY_PREFIX + username, Range.rightUnbounded(Range.Bound.exclusive(nowSeconds)))
+                .map(tuple -> new Session(tuple.getValue(), Instant.ofEpochSecond(tuple.getScore().longValue())));
+    }
+
+    public Mono<Void> remove(String username, Collection<String> jtis) {
+        if (jtis.isEmpty()) {
+            return Mono.empty();
+        }
+        return activeTokensCache.opsForZSet().remove(KEY_PREFIX + username, jtis.toArray()).then();
+    }
+
+    public record Session(String jti, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.learning.auth.security;
+
+/**
+ * Raised when the signing pool's queue is full; the request should be retried later (HTTP 503).
+ */
+public class SigningCapacityExceededException extends RuntimeException {
+
+    public SigningCapacityExceededException() {
+        super("Token signing capacity exceeded");
+    }
+}
@@ -0,0 +1,52 @@
+package com.learning.auth.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Bounded worker pool for private-key operations, so signatures never run on the Netty event loop.
+ * <p>
+ * Signing is CPU bound, so the pool defaults to its share of the cores next to the password hashing pool
+ * (see {@link BoundedWorkerPool#defaultSigningThreads}); virtual threads would not add throughput here.
+ * When {@code auth.signing.queue-capacity} tasks are already waiting, new work fails fast with
+ * {@link SigningCapacityExceededException} instead of queueing without limit.
+ * <p>
+ * Results are handed back on a Reactor scheduler, so whatever the caller chains after {@link #submit}
+ * (whitelist registration, response encoding) does not occupy a signing thread.
+ */
+@Component
+public class SigningExecutor {
+
+    private final BoundedWorkerPool pool;
+
+    public SigningExecutor(MeterRegistry meterRegistry,
+                           @Value("${auth.signing.threads:0}") int threads,
+                           @Value("${auth.signing.queue-capacity:256}") int queueCapacity) {
+        Timer signingTime = Timer.builder("tokens.signing.duration")
+                .description("Time spent signing on the worker")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.pool = new BoundedWorkerPool("token-signing-",
+                threads > 0 ? threads : BoundedWorkerPool.defaultSigningThreads(),
+                queueCapacity,
+                SigningCapacityExceededException::new,
+                meterRegistry,
+                "tokens.signing",
+                signingTime);
+    }
+
+    public <T> Mono<T> submit(Callable<T> task) {
+        return pool.submit(task);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,12 @@
+package com.learning.auth.security;
+
+import io.jsonwebtoken.security.SignatureAlgorithm;
+
+import java.security.PrivateKey;
+import java.security.PublicKey;
+
+/**
+ * A parsed, ready-to-use signing key. Instances are immutable and shared between requests.
+ */
+public record SigningKey(String kid, PrivateKey privateKey, PublicKey publicKey, SignatureAlgorithm algorithm) {
+}
@@ -0,0 +1,295 @@
+package com.learning.auth.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.EdECPrivateKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Holds the signing keys of the service, parsed once and indexed by {@code kid}.
+ * <p>
+ * When {@code auth.keys.dir} is set, every {@code <kid>.private.pem} file in that directory is loaded
+ * (with its {@code <kid>.public.pem}, required for EC and EdDSA keys) and the directory is polled for
+ * changes, so keys can be rotated without a restart. Otherwise the classpath {@code keys/private.pem}
+ * is used under {@code auth.keys.default-kid}.
+ * <p>
+ * A {@code keyring.json} manifest in the directory (written by key-generator's {@code ring} mode) gives
+ * keys an {@code activates_at} time: such keys are loaded and published in the JWKS right away, but only
+ * sign once that time has passed. Once a directory has a manifest, keys missing from it never become the
+ * active key on their own: they may be the new files of a ring whose manifest is not written yet, or a
+ * key added by hand, which needs an entry or {@code auth.keys.active-kid}. Without a manifest every key
+ * can sign immediately.
+ * <p>
+ * The JWS algorithm follows the key type: RSA keys sign RS256, P-256 keys ES256 and Ed25519 keys EdDSA.
+ * EC keys on any other curve than P-256, P-384 or P-521 are rejected when loaded.
+ */
+@Slf4j
+@Component
+public class SigningKeyRegistry {
+
+    static final String PRIVATE_KEY_SUFFIX = ".private.pem";
+    static final String PUBLIC_KEY_SUFFIX = ".public.pem";
+    static final String MANIFEST_FILE = "keyring.json";
+
+    // Each ES algorithm is bound to one curve (RFC 7518 §3.4); the field size alone would also let secp256k1 pass as ES256
+    private static final Map<SignatureAlgorithm, ECParameterSpec> EC_CURVES = Map.of(
+            Jwts.SIG.ES256, namedCurve("secp256r1"),
+            Jwts.SIG.ES384, namedCurve("secp384r1"),
+            Jwts.SIG.ES512, namedCurve("secp521r1"));
+
+    private final PrivateKeyLoader privateKeyLoader;
+    private final PublicKeyLoader publicKeyLoader;
+    private final Path keysDir;
+    private final String configuredActiveKid;
+    private final String preferredAlgorithm;
+    private final String defaultKid;
+
+    private volatile Snapshot snapshot;
+
+    public SigningKeyRegistry(PrivateKeyLoader privateKeyLoader,
+                              PublicKeyLoader publicKeyLoader,
+                              @Value("${auth.keys.dir:}") String keysDir,
+                              @Value("${auth.keys.active-kid:}") String configuredActiveKid,
+                              @Value("${auth.keys.algorithm:}") String preferredAlgorithm,
+                              @Value("${auth.keys.default-kid:default}") String defaultKid) {
+        this.privateKeyLoader = privateKeyLoader;
+        this.publicKeyLoader = publicKeyLoader;
+        this.keysDir = keysDir.isBlank() ? null : Paths.get(keysDir);
+        this.configuredActiveKid = configuredActiveKid.isBlank() ? null : configuredActiveKid;
+        this.preferredAlgorithm = preferredAlgorithm.isBlank() ? null : preferredAlgorithm;
+        this.defaultKid = defaultKid;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (keysDir == null) {
+            PrivateKey privateKey = privateKeyLoader.loadPrivateKey();
+            PublicKey publicKey = publicKeyLoader.hasClasspathPublicKey()
+                    ? publicKeyLoader.loadPublicKey()
+                    : privateKeyLoader.derivePublicKey(privateKey);
+            SigningKey key = toSigningKey(defaultKid, privateKey, publicKey);
+            if (preferredAlgorithm != null && !key.algorithm().getId().equals(preferredAlgorithm)) {
+                throw new IllegalStateException("Classpath key signs " + key.algorithm().getId()
+                        + " but auth.keys.algorithm is " + preferredAlgorithm);
+            }
+            snapshot = new Snapshot("classpath", Map.of(defaultKid, key), Activations.NONE, key);
+        } else {
+            snapshot = loadDirectory(fingerprint());
+        }
+        log.info("Signing keys loaded: {} (active kid: {})", snapshot.keys().keySet(), snapshot.active().kid());
+    }
+
+    public SigningKey activeKey() {
+        return snapshot.active();
+    }
+
+    public SigningKey findByKid(String kid) {
+        return snapshot.keys().get(kid);
+    }
+
+    public Collection<SigningKey> keys() {
+        return snapshot.keys().values();
+    }
+
+    /**
+     * Changes whenever the key set is reloaded, so derived views (such as the JWKS) can be cached.
+     */
+    public String version() {
+        return snapshot.fingerprint();
+    }
+
+    @Scheduled(fixedDelayString = "${auth.keys.reload-interval-ms:10000}")
+    public void reloadIfChanged() {
+        if (keysDir == null) {
+            return;
+        }
+        try {
+            String fingerprint = fingerprint();
+            if (fingerprint.equals(snapshot.fingerprint())) {
+                activateDueKey();
+                return;
+            }
+            Snapshot reloaded = loadDirectory(fingerprint);
+            snapshot = reloaded;
+            log.info("Signing keys reloaded: {} (active kid: {})", reloaded.keys().keySet(), reloaded.active().kid());
+        } catch (RuntimeException e) {
+            // Keep signing with the previous keys; a half-rotated directory must not take the service down
+            log.warn("Failed to reload signing keys from {}, keeping previous set", keysDir, e);
+        }
+    }
+
+    /**
+     * Switches to the newest key whose activation time has passed, for rings written ahead of time.
+     */
+    private void activateDueKey() {
+        Snapshot current = snapshot;
+        SigningKey due = selectActive(current.keys(), current.activations());
+        if (due != current.active()) {
+            snapshot = new Snapshot(current.fingerprint(), current.keys(), current.activations(), due);
+            log.info("Signing key {} activated (was {})", due.kid(), current.active().kid());
+        }
+    }
+
+    private Snapshot loadDirectory(String fingerprint) {
+        TreeMap<String, SigningKey> keys = new TreeMap<>();
+        for (Path file : privateKeyFiles()) {
+            String fileName = file.getFileName().toString();
+            String kid = fileName.substring(0, fileName.length() - PRIVATE_KEY_SUFFIX.length());
+            PrivateKey privateKey = privateKeyLoader.loadPrivateKey(file);
+            Path publicKeyFile = file.resolveSibling(kid + PUBLIC_KEY_SUFFIX);
+            PublicKey publicKey = Files.exists(publicKeyFile)
+                    ? publicKeyLoader.loadPublicKey(publicKeyFile)
+                    : privateKeyLoader.derivePublicKey(privateKey);
+            keys.put(kid, toSigningKey(kid, privateKey, publicKey));
+        }
+        if (keys.isEmpty()) {
+            throw new IllegalStateException("No *" + PRIVATE_KEY_SUFFIX + " files found in " + keysDir);
+        }
+
+        Activations activations = readActivations();
+        return new Snapshot(fingerprint, Map.copyOf(keys), activations, selectActive(keys, activations));
+    }
+
+    private SigningKey selectActive(Map<String, SigningKey> keys, Activations activations) {
+        if (configuredActiveKid != null) {
+            SigningKey active = keys.get(configuredActiveKid);
+            if (active == null) {
+                throw new IllegalStateException("Active kid " + configuredActiveKid + " not found in " + keysDir);
+            }
+            return active;
+        }
+        Instant now = Instant.now();
+        // Kids are versioned, so the lexicographically greatest one is the newest
+        return new TreeMap<>(keys).descendingMap().values().stream()
+                .filter(key -> preferredAlgorithm == null || key.algorithm().getId().equals(preferredAlgorithm))
+                .filter(key -> !activations.of(key.kid()).isAfter(now))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No active " + (preferredAlgorithm == null ? "" : preferredAlgorithm + " ")
+                        + "key found in " + keysDir));
+    }
+
+    private Activations readActivations() {
+        Path manifest = keysDir.resolve(MANIFEST_FILE);
+        if (!Files.exists(manifest)) {
+            return Activations.NONE;
+        }
+        try {
+            Map<String, Instant> activations = new HashMap<>();
+            for (JsonNode jwk : new ObjectMapper().readTree(manifest.toFile()).path("keys")) {
+                if (jwk.hasNonNull("kid") && jwk.hasNonNull("activates_at")) {
+                    activations.put(jwk.get("kid").asText(), Instant.ofEpochSecond(jwk.get("activates_at").asLong()));
+                }
+            }
+            return new Activations(Map.copyOf(activations), true);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read key ring manifest " + manifest, e);
+        }
+    }
+
+    private SigningKey toSigningKey(String kid, PrivateKey privateKey, PublicKey publicKey) {
+        return new SigningKey(kid, privateKey, publicKey, algorithmFor(privateKey));
+    }
+
+    static SignatureAlgorithm algorithmFor(PrivateKey privateKey) {
+        if (privateKey instanceof RSAPrivateKey) {
+            return Jwts.SIG.RS256;
+        }
+        if (privateKey instanceof ECPrivateKey ecKey) {
+            ECParameterSpec params = ecKey.getParams();
+            return EC_CURVES.entrySet().stream()
+                    .filter(curve -> curve.getValue().getOrder().equals(params.getOrder())
+                            && curve.getValue().getGenerator().equals(params.getGenerator()))
+                    .map(Map.Entry::getKey)
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unsupported EC curve for signing; use P-256, P-384 or P-521"));
+        }
+        if (privateKey instanceof EdECPrivateKey) {
+            return Jwts.SIG.EdDSA;
+        }
+        throw new IllegalArgumentException("Unsupported signing key type: " + privateKey.getAlgorithm());
+    }
+
+    private static ECParameterSpec namedCurve(String name) {
+        try {
+            AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+            parameters.init(new ECGenParameterSpec(name));
+            return parameters.getParameterSpec(ECParameterSpec.class);
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Failed to load EC curve " + name, e);
+        }
+    }
+
+    private String fingerprint() {
+        return keyFiles(".pem", MANIFEST_FILE).stream()
+                .map(file -> {
+                    try {
+                        return file.getFileName() + ":" + Files.size(file) + ":" + Files.getLastModifiedTime(file).toMillis();
+                    } catch (IOException e) {
+                        throw new RuntimeException("Failed to stat key file " + file, e);
+                    }
+                })
+                .collect(Collectors.joining("|"));
+    }
+
+    private List<Path> privateKeyFiles() {
+        return keyFiles(PRIVATE_KEY_SUFFIX);
+    }
+
+    private List<Path> keyFiles(String... suffixes) {
+        try (Stream<Path> files = Files.list(keysDir)) {
+            return files
+                    .filter(file -> Stream.of(suffixes).anyMatch(file.getFileName().toString()::endsWith))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to list key directory " + keysDir, e);
+        }
+    }
+
+    private record Snapshot(String fingerprint, Map<String, SigningKey> keys, Activations activations, SigningKey active) {
+    }
+
+    /**
+     * Activation times from {@code keyring.json}; {@code manifest} tells whether the directory has one.
+     */
+    private record Activations(Map<String, Instant> byKid, boolean manifest) {
+
+        static final Activations NONE = new Activations(Map.of(), false);
+
+        Instant of(String kid) {
+            Instant activatesAt = byKid.get(kid);
+            if (activatesAt != null) {
+                return activatesAt;
+            }
+            // Not listed in an existing manifest: wait until it is
+            return manifest ? Instant.MAX : Instant.MIN;
+        }
+    }
+}
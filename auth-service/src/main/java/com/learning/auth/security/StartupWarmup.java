@@ -0,0 +1,89 @@
+package com.learning.auth.security;
+
+import com.learning.tokenstore.TokenStore;
+import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Exercises the token hot paths once before the service reports ready.
+ * <p>
+ * Runners complete before Spring Boot publishes {@code ReadinessState.ACCEPTING_TRAFFIC}, so
+ * {@code /actuator/health/readiness} stays down until every signing thread has minted and verified tokens
+ * (loading the JCA providers, the per-thread buffers and the JIT-compiled paths) and the Redis connections
+ * are open. Failures are logged and do not stop startup: a cold path is slower, not broken.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "auth.warm-up.enabled", havingValue = "true", matchIfMissing = true)
+public class StartupWarmup implements ApplicationRunner {
+
+    private static final String WARM_UP_USER = "warm-up";
+
+    private final JwtCodec codec;
+    private final SigningExecutor signingExecutor;
+    private final JwkSetPublisher jwkSetPublisher;
+    private final TokenStore tokenStore;
+    private final ReactiveRedisTemplate<String, String> activeTokensCache;
+    private final int iterations;
+    private final Duration timeout;
+
+    public StartupWarmup(JwtCodec codec,
+                         SigningExecutor signingExecutor,
+                         JwkSetPublisher jwkSetPublisher,
+                         TokenStore tokenStore,
+                         @Qualifier("activeTokensCache") ReactiveRedisTemplate<String, String> activeTokensCache,
+                         @Value("${auth.warm-up.iterations:200}") int iterations,
+                         @Value("${auth.warm-up.timeout:10s}") Duration timeout) {
+        this.codec = codec;
+        this.signingExecutor = signingExecutor;
+        this.jwkSetPublisher = jwkSetPublisher;
+        this.tokenStore = tokenStore;
+        this.activeTokensCache = activeTokensCache;
+        this.iterations = iterations;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long startedAt = System.nanoTime();
+        try {
+            jwkSetPublisher.current();
+            // Spread over the pool so every signing thread builds its buffers and Signature
+            Flux.range(0, iterations)
+                    .flatMap(i -> signingExecutor.submit(this::mintAndVerify), Runtime.getRuntime().availableProcessors())
+                    .then()
+                    .block(timeout);
+        } catch (RuntimeException e) {
+            log.warn("Signing warm-up failed", e);
+        }
+        try {
+            // Nothing is written: the probe key never exists
+            Mono.when(tokenStore.exists("warm-up:probe"),
+                            activeTokensCache.execute(connection -> connection.ping()))
+                    .block(timeout);
+        } catch (RuntimeException e) {
+            log.warn("Redis warm-up failed, connections will be opened on first use", e);
+        }
+        log.info("Warm-up finished in {} ms", Duration.ofNanos(System.nanoTime() - startedAt).toMillis());
+    }
+
+    private Boolean mintAndVerify() {
+        IssuedToken issued = codec.signToken(WARM_UP_USER, "USER");
+        Claims claims = codec.parseVerified(issued.token());
+        if (claims == null) {
+            throw new IllegalStateException("Token minted during warm-up did not verify");
+        }
+        return true;
+    }
+}
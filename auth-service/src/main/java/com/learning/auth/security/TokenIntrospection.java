@@ -0,0 +1,25 @@
+package com.learning.auth.security;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Introspection response (RFC 7662). Inactive tokens carry no other member.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TokenIntrospection(boolean active,
+                                 String sub,
+                                 Long exp,
+                                 Long iat,
+                                 String jti,
+                                 List<String> roles,
+                                 @JsonProperty("token_type") String tokenType) {
+
+    private static final TokenIntrospection INACTIVE = new TokenIntrospection(false, null, null, null, null, null, null);
+
+    public static TokenIntrospection inactive() {
+        return INACTIVE;
+    }
+}
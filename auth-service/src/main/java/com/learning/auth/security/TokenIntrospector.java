@@ -0,0 +1,109 @@
+package com.learning.auth.security;
+
+import com.learning.tokenstore.TokenKeyFormat;
+import com.learning.tokenstore.TokenStore;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Resolves the status of access tokens in bulk.
+ * <p>
+ * Signatures are checked on the {@link SigningExecutor} pool in tasks of {@code auth.introspection.verify-batch-size}
+ * tokens, submitted one after the other, so a large batch takes turns with token issuance instead of holding
+ * a signing thread for the whole chunk. The whitelist keys of a whole chunk ({@code auth.introspection.chunk-size}
+ * tokens) are then read with a single {@link TokenStore#getAll} (one {@code MGET} per Redis shard), so N tokens
+ * cost one round trip per chunk instead of N. Results are emitted in request order, chunk by chunk.
+ */
+@Service
+public class TokenIntrospector {
+
+    private final JwtCodec codec;
+    private final SigningExecutor signingExecutor;
+    private final TokenStore tokenStore;
+    private final TokenKeyFormat keyFormat;
+    private final int chunkSize;
+    private final int verifyBatchSize;
+
+    public TokenIntrospector(JwtCodec codec,
+                             SigningExecutor signingExecutor,
+                             TokenStore tokenStore,
+                             @Value("${tokens.key-format:jti}") TokenKeyFormat keyFormat,
+                             @Value("${auth.introspection.chunk-size:500}") int chunkSize,
+                             @Value("${auth.introspection.verify-batch-size:16}") int verifyBatchSize) {
+        this.codec = codec;
+        this.signingExecutor = signingExecutor;
+        this.tokenStore = tokenStore;
+        this.keyFormat = keyFormat;
+        this.chunkSize = chunkSize;
+        this.verifyBatchSize = verifyBatchSize;
+    }
+
+    public Flux<TokenIntrospection> introspect(List<String> tokens) {
+        return Flux.fromIterable(tokens)
+                .buffer(chunkSize)
+                .concatMap(this::introspectChunk);
+    }
+
+    private Flux<TokenIntrospection> introspectChunk(List<String> tokens) {
+        return verify(tokens)
+                .flatMapMany(claimsList -> {
+                    // Keys of all verified tokens, flattened; offsets[i] is where token i's keys start
+                    List<String> keys = new ArrayList<>();
+                    int[] offsets = new int[tokens.size() + 1];
+                    for (int i = 0; i < tokens.size(); i++) {
+                        offsets[i] = keys.size();
+                        Claims claims = claimsList.get(i);
+                        if (claims != null) {
+                            keys.addAll(keyFormat.keys(tokens.get(i), claims.getId()));
+                        }
+                    }
+                    offsets[tokens.size()] = keys.size();
+                    if (keys.isEmpty()) {
+                        // Nothing verified; claimsList is all nulls, which a Flux cannot carry
+                        return Flux.range(0, tokens.size()).map(i -> TokenIntrospection.inactive());
+                    }
+                    return tokenStore.getAll(keys)
+                            .flatMapIterable(values -> {
+                                List<TokenIntrospection> results = new ArrayList<>(tokens.size());
+                                for (int i = 0; i < tokens.size(); i++) {
+                                    results.add(toIntrospection(claimsList.get(i), values.subList(offsets[i], offsets[i + 1])));
+                                }
+                                return results;
+                            });
+                });
+    }
+
+    /**
+     * Claims of each token, in order, with {@code null} for tokens that do not verify.
+     */
+    private Mono<List<Claims>> verify(List<String> tokens) {
+        return Flux.fromIterable(tokens)
+                .buffer(verifyBatchSize)
+                .concatMap(batch -> signingExecutor.submit(() -> batch.stream().map(codec::parseVerified).toList()))
+                // Collected as lists: the nulls of unverifiable tokens cannot travel as Flux elements
+                .<List<Claims>>collect(() -> new ArrayList<>(tokens.size()), List::addAll);
+    }
+
+    private static TokenIntrospection toIntrospection(Claims claims, List<String> whitelistValues) {
+        boolean whitelisted = whitelistValues.stream().anyMatch(Objects::nonNull);
+        if (claims == null || !whitelisted) {
+            return TokenIntrospection.inactive();
+        }
+        @SuppressWarnings("unchecked")
+        List<String> roles = claims.get("roles", List.class);
+        return new TokenIntrospection(true,
+                claims.getSubject(),
+                claims.getExpiration().getTime() / 1000,
+                claims.getIssuedAt() == null ? null : claims.getIssuedAt().getTime() / 1000,
+                claims.getId(),
+                roles,
+                "Bearer");
+    }
+}
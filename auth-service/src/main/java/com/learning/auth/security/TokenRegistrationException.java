@@ -0,0 +1,11 @@
+package com.learning.auth.security;
+
+/**
+ * Raised when an issued token could not be written to the whitelist, so it must not be handed out.
+ */
+public class TokenRegistrationException extends RuntimeException {
+
+    public TokenRegistrationException(Throwable cause) {
+        super("Failed to register token in the active token store", cause);
+    }
+}
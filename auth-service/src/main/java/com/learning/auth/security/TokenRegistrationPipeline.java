@@ -0,0 +1,112 @@
+package com.learning.auth.security;
+
+import com.learning.tokenstore.TokenStore;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces whitelist writes from concurrent logins into batched {@link TokenStore#putAll} calls
+ * (pipelined SETs on Redis).
+ * <p>
+ * A batch is flushed when it reaches {@code auth.registration.max-batch-size} entries or after
+ * {@code auth.registration.flush-window}, whichever comes first. Callers get a {@link Mono} that completes
+ * only once the store has acknowledged their write, so a token is never returned before resource-service
+ * can see it.
+ * <p>
+ * Registrations arrive on the {@code parallel} scheduler threads that {@link SigningExecutor} hands signed
+ * tokens back on. Concurrent emitters only collide briefly on the queue, so an emitter spins for at most
+ * {@code auth.registration.emit-spin-limit} and then fails its registration instead of stalling a shared
+ * thread.
+ */
+@Slf4j
+@Component
+public class TokenRegistrationPipeline {
+
+    private final TokenStore tokenStore;
+
+    private final Sinks.Many<Registration> queue = Sinks.many().unicast().onBackpressureBuffer();
+    private final Disposable flusher;
+    private final Duration emitSpinLimit;
+
+    private final DistributionSummary batchSize;
+    private final Timer flushLatency;
+
+    public TokenRegistrationPipeline(TokenStore tokenStore,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${auth.registration.max-batch-size:64}") int maxBatchSize,
+                                     @Value("${auth.registration.flush-window:2ms}") Duration flushWindow,
+                                     @Value("${auth.registration.max-in-flight-batches:8}") int maxInFlightBatches,
+                                     @Value("${auth.registration.emit-spin-limit:10ms}") Duration emitSpinLimit) {
+        this.tokenStore = tokenStore;
+        this.emitSpinLimit = emitSpinLimit;
+        this.batchSize = DistributionSummary.builder("tokens.registration.batch.size")
+                .description("Whitelist SETs per pipelined flush")
+                .register(meterRegistry);
+        this.flushLatency = Timer.builder("tokens.registration.flush.duration")
+                .description("Time for the token store to acknowledge a flushed batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+        this.flusher = queue.asFlux()
+                .bufferTimeout(maxBatchSize, flushWindow, true)
+                .flatMap(this::flush, maxInFlightBatches)
+                .subscribe();
+    }
+
+    /**
+     * Writes {@code value} under every key with the given TTL. Completes when all writes are acknowledged,
+     * or fails with {@link TokenRegistrationException}.
+     */
+    public Mono<Void> register(List<String> keys, String value, Duration ttl) {
+        return Flux.fromIterable(keys)
+                .flatMap(key -> {
+                    Registration registration = new Registration(new TokenStore.Entry(key, value, ttl), Sinks.one());
+                    try {
+                        queue.emitNext(registration, Sinks.EmitFailureHandler.busyLooping(emitSpinLimit));
+                    } catch (Sinks.EmissionException e) {
+                        // Still contended after the spin limit, or shut down
+                        return Mono.error(new TokenRegistrationException(e));
+                    }
+                    return registration.ack().asMono();
+                })
+                .then();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        queue.tryEmitComplete();
+        flusher.dispose();
+    }
+
+    private Mono<Void> flush(List<Registration> batch) {
+        long startedAt = System.nanoTime();
+        batchSize.record(batch.size());
+
+        List<TokenStore.Entry> entries = batch.stream().map(Registration::entry).toList();
+        return tokenStore.putAll(entries)
+                .doOnSuccess(done -> batch.forEach(registration -> registration.ack().tryEmitEmpty()))
+                .onErrorResume(e -> {
+                    log.warn("Failed to flush {} token registrations", batch.size(), e);
+                    TokenRegistrationException failure = new TokenRegistrationException(e);
+                    batch.forEach(registration -> registration.ack().tryEmitError(failure));
+                    return Mono.empty();
+                })
+                .doFinally(signal -> flushLatency.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS));
+    }
+
+    private record Registration(TokenStore.Entry entry, Sinks.One<Void> ack) {
+    }
+}
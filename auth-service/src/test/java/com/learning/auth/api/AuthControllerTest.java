@@ -0,0 +1,136 @@
+package com.learning.auth.api;
+
+import com.learning.auth.domain.UserCredentials;
+import com.learning.auth.persistence.UserCache;
+import com.learning.auth.security.JwtService;
+import com.learning.auth.security.LoginRateLimiter;
+import com.learning.auth.security.PasswordVerifier;
+import com.learning.auth.security.RefreshTokenService;
+import com.learning.auth.security.SigningCapacityExceededException;
+import com.learning.tokenstore.TokenStoreConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import reactor.core.publisher.Mono;
+import redis.embedded.RedisServer;
+
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuthControllerTest {
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+    private static ReactiveRedisTemplate<String, String> activeTokensCache;
+
+    private JwtService jwtService;
+    private PasswordVerifier passwordVerifier;
+    private RefreshTokenService refreshTokenService;
+    private AuthController controller;
+
+    @BeforeAll
+    static void startRedis() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+
+        connectionFactory = new LettuceConnectionFactory("localhost", port);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        activeTokensCache = new TokenStoreConfiguration().activeTokensCache(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() throws Exception {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        jwtService = mock(JwtService.class);
+        when(jwtService.accessTokenTtl()).thenReturn(Duration.ofMinutes(15));
+        when(jwtService.revokeToken(anyString())).thenReturn(Mono.just(true));
+
+        UserCache userCache = mock(UserCache.class);
+        when(userCache.findByUsername("user"))
+                .thenReturn(Mono.just(new UserCredentials(1L, "user", "{noop}password", "USER", List.of("USER"))));
+
+        passwordVerifier = mock(PasswordVerifier.class);
+        refreshTokenService = new RefreshTokenService(activeTokensCache, Duration.ofDays(14));
+        LoginRateLimiter loginRateLimiter = new LoginRateLimiter(activeTokensCache, new SimpleMeterRegistry(),
+                1000, 1000, 1000, 1000, 1000, 1000, 1000, false, Duration.ofMinutes(1), 1000, 1000, 1000);
+        controller = new AuthController(jwtService, userCache, passwordVerifier, refreshTokenService, loginRateLimiter);
+    }
+
+    @Test
+    void refreshRejectedWithServiceUnavailableCanBeRetriedWithTheSameToken() {
+        String refreshToken = refreshTokenService.issue("user").block();
+        when(jwtService.generateToken("user", "USER"))
+                .thenReturn(Mono.error(new SigningCapacityExceededException()))
+                .thenReturn(Mono.just("access-token"));
+
+        ResponseEntity<Map<String, String>> overloaded = refresh(refreshToken);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, overloaded.getStatusCode());
+        assertEquals("1", overloaded.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+        ResponseEntity<Map<String, String>> retried = refresh(refreshToken);
+        assertEquals(HttpStatus.OK, retried.getStatusCode());
+        assertEquals("access-token", retried.getBody().get("access_token"));
+        String successor = retried.getBody().get("refresh_token");
+        assertNotEquals(refreshToken, successor);
+
+        // The family survived the failed attempt: the successor still refreshes
+        assertEquals("user", refreshTokenService.holder(successor).block());
+    }
+
+    @Test
+    void reusingARotatedTokenRevokesTheFamily() {
+        String refreshToken = refreshTokenService.issue("user").block();
+        when(jwtService.generateToken("user", "USER")).thenReturn(Mono.just("access-token"));
+
+        String successor = refresh(refreshToken).getBody().get("refresh_token");
+
+        assertEquals(HttpStatus.UNAUTHORIZED, refresh(refreshToken).getStatusCode());
+        assertNull(refreshTokenService.holder(successor).block());
+    }
+
+    @Test
+    void passwordGrantRejectedWithServiceUnavailableLeavesNoRefreshTokenFamily() {
+        when(passwordVerifier.authenticate("overloaded", "password"))
+                .thenReturn(Mono.just(new UserCredentials(2L, "overloaded", "{noop}password", "USER", List.of("USER"))));
+        when(jwtService.generateToken("overloaded", "USER")).thenReturn(Mono.error(new SigningCapacityExceededException()));
+
+        ResponseEntity<Map<String, String>> response = controller.token("password", "overloaded", "password", null,
+                MockServerHttpRequest.post("/oauth/token").build()).block();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertFalse(activeTokensCache.hasKey("rtu:overloaded").block());
+    }
+
+    private ResponseEntity<Map<String, String>> refresh(String refreshToken) {
+        return controller.token("refresh_token", null, null, refreshToken, MockServerHttpRequest.post("/oauth/token").build())
+                .block();
+    }
+}
@@ -0,0 +1,223 @@
+package com.learning.auth.api;
+
+import com.learning.auth.security.JwtCodec;
+import com.learning.auth.security.JwtService;
+import com.learning.auth.security.RefreshTokenService;
+import com.learning.auth.security.SecurityConfig;
+import com.learning.auth.security.SessionIndex;
+import com.learning.auth.security.SigningExecutor;
+import com.learning.auth.security.TestKeys;
+import com.learning.auth.security.TokenIntrospector;
+import com.learning.auth.security.TokenRegistrationPipeline;
+import com.learning.tokenstore.RedisTokenStore;
+import com.learning.tokenstore.TokenKeyFormat;
+import com.learning.tokenstore.TokenStore;
+import com.learning.tokenstore.TokenStoreConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.config.EnableWebFlux;
+import org.springframework.web.reactive.function.BodyInserters;
+import redis.embedded.RedisServer;
+
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Session endpoints behind the real sessions filter chain, with tokens issued by {@link JwtService} into an
+ * embedded Redis.
+ */
+class SessionControllerTest {
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+    private static ReactiveRedisTemplate<String, String> activeTokensCache;
+
+    private SigningExecutor signingExecutor;
+    private TokenRegistrationPipeline registrationPipeline;
+    private JwtCodec codec;
+    private SessionIndex sessionIndex;
+    private JwtService jwtService;
+    private RefreshTokenService refreshTokenService;
+    private AnnotationConfigApplicationContext context;
+    private WebTestClient client;
+
+    @BeforeAll
+    static void startRedis() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+
+        connectionFactory = new LettuceConnectionFactory("localhost", port);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        activeTokensCache = new TokenStoreConfiguration().activeTokensCache(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() throws Exception {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TokenStore tokenStore = new RedisTokenStore(activeTokensCache);
+        signingExecutor = new SigningExecutor(meterRegistry, 2, 256);
+        registrationPipeline = new TokenRegistrationPipeline(tokenStore, meterRegistry, 64, Duration.ofMillis(2), 8, Duration.ofMillis(10));
+        codec = TestKeys.codec(TestKeys.registry(TestKeys.generate("EC")));
+        sessionIndex = new SessionIndex(activeTokensCache);
+        jwtService = new JwtService(codec, signingExecutor, registrationPipeline, sessionIndex, tokenStore, activeTokensCache,
+                meterRegistry, "token-revocations", "revoked-jtis", TokenKeyFormat.JTI);
+        refreshTokenService = new RefreshTokenService(activeTokensCache, Duration.ofDays(14));
+        TokenIntrospector introspector = new TokenIntrospector(codec, signingExecutor, tokenStore, TokenKeyFormat.JTI, 500, 16);
+
+        context = new AnnotationConfigApplicationContext();
+        context.registerBean(SessionIndex.class, () -> sessionIndex);
+        context.registerBean(JwtService.class, () -> jwtService);
+        context.registerBean(RefreshTokenService.class, () -> refreshTokenService);
+        context.registerBean(TokenIntrospector.class, () -> introspector);
+        context.register(WebConfig.class, SecurityConfig.class, SessionController.class);
+        context.refresh();
+        client = WebTestClient.bindToApplicationContext(context).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+        registrationPipeline.shutdown();
+        signingExecutor.shutdown();
+    }
+
+    @Test
+    void listsTheCallersLiveSessionsAndMarksTheCurrentOne() {
+        String alice = randomUsername();
+        String current = issue(alice, "USER");
+        String other = issue(alice, "USER");
+        issue(randomUsername(), "USER");
+
+        List<Map<String, Object>> sessions = listSessions(current);
+
+        assertEquals(2, sessions.size());
+        Map<String, Boolean> currentByJti = new HashMap<>();
+        sessions.forEach(session -> currentByJti.put((String) session.get("jti"), (Boolean) session.get("current")));
+        assertEquals(Map.of(jti(current), true, jti(other), false), currentByJti);
+    }
+
+    @Test
+    void keepCurrentRevokesEveryOtherSessionAndRefreshTokenFamily() {
+        String alice = randomUsername();
+        String current = issue(alice, "USER");
+        String other = issue(alice, "USER");
+        String keptRefreshToken = refreshTokenService.issue(alice).block();
+        String otherRefreshToken = refreshTokenService.issue(alice).block();
+
+        Map<String, Object> revoked = client.method(HttpMethod.DELETE)
+                .uri("/oauth/sessions?keep_current=true")
+                .headers(headers -> headers.setBearerAuth(current))
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                .body(BodyInserters.fromFormData("refresh_token", keptRefreshToken))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(new ParameterizedTypeReference<Map<String, Object>>() { })
+                .returnResult().getResponseBody();
+
+        assertEquals(1, ((Number) revoked.get("revoked_access_tokens")).intValue());
+        assertEquals(1, ((Number) revoked.get("revoked_refresh_token_families")).intValue());
+        assertEquals(List.of(jti(current)), listSessions(current).stream().map(session -> session.get("jti")).toList());
+        client.get().uri("/oauth/sessions")
+                .headers(headers -> headers.setBearerAuth(other))
+                .exchange()
+                .expectStatus().isUnauthorized();
+        assertNotNull(refreshTokenService.holder(keptRefreshToken).block());
+        assertNull(refreshTokenService.holder(otherRefreshToken).block());
+    }
+
+    @Test
+    void revokingAnotherUsersSessionsRequiresTheAdminRole() {
+        String bob = randomUsername();
+        String bobToken = issue(bob, "USER");
+        String userToken = issue(randomUsername(), "USER");
+        String adminToken = issue(randomUsername(), "ADMIN,USER");
+
+        client.delete().uri("/oauth/sessions/{username}", bob)
+                .headers(headers -> headers.setBearerAuth(userToken))
+                .exchange()
+                .expectStatus().isForbidden();
+        assertEquals(1, listSessions(bobToken).size());
+
+        client.delete().uri("/oauth/sessions/{username}", bob)
+                .headers(headers -> headers.setBearerAuth(adminToken))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.revoked_access_tokens").isEqualTo(1);
+        client.get().uri("/oauth/sessions")
+                .headers(headers -> headers.setBearerAuth(bobToken))
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void expiredSessionsAreTrimmedOnTheNextWrite() {
+        String carol = randomUsername();
+        Instant now = Instant.now();
+        sessionIndex.add(carol, "expired", now.minusSeconds(60)).block();
+        sessionIndex.add(carol, "live", now.plusSeconds(600)).block();
+
+        assertEquals(List.of("live"), sessionIndex.live(carol).map(SessionIndex.Session::jti).collectList().block());
+        // Gone from the sorted set itself, not only hidden on read
+        assertEquals(List.of("live"),
+                activeTokensCache.opsForZSet().range("sessions:" + carol, Range.unbounded()).collectList().block());
+    }
+
+    private String issue(String username, String roles) {
+        return jwtService.generateToken(username, roles).block();
+    }
+
+    private String jti(String token) {
+        return codec.parseVerified(token).getId();
+    }
+
+    private List<Map<String, Object>> listSessions(String token) {
+        return client.get().uri("/oauth/sessions")
+                .headers(headers -> headers.setBearerAuth(token))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(new ParameterizedTypeReference<Map<String, Object>>() { })
+                .returnResult().getResponseBody();
+    }
+
+    private static String randomUsername() {
+        return "user-" + UUID.randomUUID();
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableWebFlux
+    static class WebConfig {
+    }
+}
@@ -0,0 +1,75 @@
+package com.learning.auth.security;
+
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.security.KeyPair;
+import java.security.Signature;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtMinterTest {
+
+    // Minted username -> what a parser must read back
+    private static final Map<String, String> USERNAMES = Map.of(
+            "alice", "alice",
+            "quote\"back\\slash/", "quote\"back\\slash/",
+            "tab\tnew\nline\u0001", "tab\tnew\nline\u0001",
+            "Zoë Ñandú", "Zoë Ñandú",
+            "日本語ユーザー", "日本語ユーザー",
+            "emoji 😀", "emoji 😀",
+            "lone \uD800 high", "lone ? high",
+            "lone \uDC00 low", "lone ? low");
+
+    @ParameterizedTest
+    @CsvSource({"RSA, RS256", "EC, ES256", "Ed25519, EdDSA"})
+    void mintedTokensParseWithJjwtAndNimbus(String keyAlgorithm, String jwsAlgorithm) throws Exception {
+        KeyPair keyPair = TestKeys.generate(keyAlgorithm);
+        JwtCodec codec = TestKeys.codec(TestKeys.registry(keyPair));
+
+        for (Map.Entry<String, String> username : USERNAMES.entrySet()) {
+            IssuedToken issued = codec.signToken(username.getKey(), "USER,ADMIN");
+
+            Claims claims = codec.parseVerified(issued.token());
+            assertNotNull(claims, username.getKey());
+            assertEquals(username.getValue(), claims.getSubject());
+            assertEquals(issued.jti(), claims.getId());
+            assertEquals(List.of("USER", "ADMIN"), claims.get("roles", List.class));
+            assertEquals(issued.expiresAt().getEpochSecond(), claims.getExpiration().toInstant().getEpochSecond());
+
+            SignedJWT jwt = SignedJWT.parse(issued.token());
+            assertEquals(jwsAlgorithm, jwt.getHeader().getAlgorithm().getName());
+            assertEquals(TestKeys.KID, jwt.getHeader().getKeyID());
+            assertTrue(verifiesWithNimbus(jwt, keyPair), username.getKey());
+            JWTClaimsSet claimsSet = jwt.getJWTClaimsSet();
+            assertEquals(username.getValue(), claimsSet.getSubject());
+            assertEquals(issued.jti(), claimsSet.getJWTID());
+            assertEquals(List.of("USER", "ADMIN"), claimsSet.getStringListClaim("roles"));
+        }
+    }
+
+    private static boolean verifiesWithNimbus(SignedJWT jwt, KeyPair keyPair) throws Exception {
+        if (keyPair.getPublic() instanceof RSAPublicKey rsa) {
+            return jwt.verify(new RSASSAVerifier(rsa));
+        }
+        if (keyPair.getPublic() instanceof ECPublicKey ec) {
+            return jwt.verify(new ECDSAVerifier(ec));
+        }
+        // Nimbus' Ed25519 verifier needs Tink; check Nimbus' signing input and signature with the JDK instead
+        Signature verifier = Signature.getInstance("Ed25519");
+        verifier.initVerify(keyPair.getPublic());
+        verifier.update(jwt.getSigningInput());
+        return verifier.verify(jwt.getSignature().decode());
+    }
+}
@@ -0,0 +1,192 @@
+package com.learning.auth.security;
+
+import com.learning.tokenstore.TokenStoreConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoginRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+    private static ReactiveRedisTemplate<String, String> activeTokensCache;
+
+    @BeforeAll
+    static void startRedis() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+
+        connectionFactory = new LettuceConnectionFactory("localhost", port);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        activeTokensCache = new TokenStoreConfiguration().activeTokensCache(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() throws Exception {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @Test
+    void bucketAllowsTheBurstThenOnePermitPerInterval() {
+        LoginRateLimiter.Limit limit = LoginRateLimiter.Limit.of(3, 1);
+        LoginRateLimiter.Bucket bucket = new LoginRateLimiter.Bucket();
+        long now = 1_000 * SECOND;
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(limit, now));
+        }
+        assertEquals(SECOND, bucket.tryAcquire(limit, now));
+        assertEquals(SECOND / 2, bucket.tryAcquire(limit, now + SECOND / 2));
+
+        assertEquals(0, bucket.tryAcquire(limit, now + SECOND));
+        assertEquals(SECOND, bucket.tryAcquire(limit, now + SECOND));
+
+        // Idle long enough, the whole burst is available again
+        long later = now + 10 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(limit, later));
+        }
+    }
+
+    @Test
+    void waitingTimeDoesNotTakeAPermit() {
+        LoginRateLimiter.Limit limit = LoginRateLimiter.Limit.of(2, 1);
+        LoginRateLimiter.Bucket bucket = new LoginRateLimiter.Bucket();
+        long now = 1_000 * SECOND;
+
+        assertEquals(0, bucket.waitNanos(limit, now));
+        bucket.tryAcquire(limit, now);
+        assertEquals(0, bucket.waitNanos(limit, now));
+        assertEquals(0, bucket.waitNanos(limit, now));
+        bucket.tryAcquire(limit, now);
+        assertEquals(SECOND, bucket.waitNanos(limit, now));
+    }
+
+    @Test
+    void correctLoginsNeverUseTheUsernameBudget() {
+        LoginRateLimiter limiter = localLimiter(2, 2);
+        String ip = randomIp();
+
+        for (int i = 0; i < 20; i++) {
+            limiter.acquire(ip, "alice").block();
+        }
+    }
+
+    @Test
+    void failedPasswordsLockTheUsernameOnlyForThatAddress() {
+        LoginRateLimiter limiter = localLimiter(2, 1000);
+        String attacker = randomIp();
+        limiter.recordFailure(attacker, "alice").block();
+        limiter.recordFailure(attacker, "alice").block();
+
+        RateLimitExceededException rejected = assertThrows(RateLimitExceededException.class,
+                () -> limiter.acquire(attacker, "alice").block());
+        assertEquals("Rate limit exceeded for ip-username", rejected.getMessage());
+        assertTrue(rejected.retryAfter().compareTo(Duration.ZERO) > 0);
+
+        limiter.acquire(randomIp(), "alice").block();
+        limiter.acquire(attacker, "bob").block();
+    }
+
+    @Test
+    void failuresFromManyAddressesLockTheUsernameEverywhere() {
+        LoginRateLimiter limiter = localLimiter(1000, 3);
+        for (int i = 0; i < 3; i++) {
+            limiter.recordFailure(randomIp(), "alice").block();
+        }
+
+        RateLimitExceededException rejected = assertThrows(RateLimitExceededException.class,
+                () -> limiter.acquire(randomIp(), "alice").block());
+        assertEquals("Rate limit exceeded for username", rejected.getMessage());
+        limiter.acquire(randomIp(), "bob").block();
+    }
+
+    @Test
+    void globalWindowIsSharedByAllNodes() {
+        LoginRateLimiter node1 = globalLimiter(3, 1000, 1000);
+        LoginRateLimiter node2 = globalLimiter(3, 1000, 1000);
+        String ip = randomIp();
+
+        node1.acquire(ip, null).block();
+        node2.acquire(ip, null).block();
+        node1.acquire(ip, null).block();
+
+        RateLimitExceededException rejected = assertThrows(RateLimitExceededException.class,
+                () -> node2.acquire(ip, null).block());
+        assertEquals("Rate limit exceeded for global-ip", rejected.getMessage());
+        assertTrue(rejected.retryAfter().compareTo(Duration.ofHours(1)) <= 0);
+    }
+
+    @Test
+    void globalFailureCountIsSharedByAllNodes() {
+        LoginRateLimiter node1 = globalLimiter(1000, 2, 1000);
+        LoginRateLimiter node2 = globalLimiter(1000, 2, 1000);
+        String ip = randomIp();
+
+        // Passing the check does not count against the username
+        node2.acquire(ip, "alice").block();
+        node2.acquire(ip, "alice").block();
+        node2.acquire(ip, "alice").block();
+
+        node1.recordFailure(ip, "alice").block();
+        node1.recordFailure(ip, "alice").block();
+
+        RateLimitExceededException rejected = assertThrows(RateLimitExceededException.class,
+                () -> node2.acquire(ip, "alice").block());
+        assertEquals("Rate limit exceeded for global-ip-username", rejected.getMessage());
+        node2.acquire(randomIp(), "alice").block();
+    }
+
+    @Test
+    void globalUsernameFailureCountSpansAddressesAndNodes() {
+        LoginRateLimiter node1 = globalLimiter(1000, 1000, 2);
+        LoginRateLimiter node2 = globalLimiter(1000, 1000, 2);
+        // A fresh account, so failures from other tests in the same window do not count
+        String username = "user-" + UUID.randomUUID();
+
+        node1.recordFailure(randomIp(), username).block();
+        node2.recordFailure(randomIp(), username).block();
+
+        RateLimitExceededException rejected = assertThrows(RateLimitExceededException.class,
+                () -> node1.acquire(randomIp(), username).block());
+        assertEquals("Rate limit exceeded for global-username", rejected.getMessage());
+    }
+
+    private static LoginRateLimiter localLimiter(int ipUsernameBurst, int usernameBurst) {
+        return new LoginRateLimiter(activeTokensCache, new SimpleMeterRegistry(),
+                1000, 1000, 1000, ipUsernameBurst, 0.001, usernameBurst, 0.001, false, Duration.ofMinutes(1), 1000, 1000, 1000);
+    }
+
+    private static LoginRateLimiter globalLimiter(long ipLimit, long ipUsernameLimit, long usernameLimit) {
+        return new LoginRateLimiter(activeTokensCache, new SimpleMeterRegistry(),
+                1000, 1000, 1000, 1000, 1000, 1000, 1000, true, Duration.ofHours(1), ipLimit, ipUsernameLimit, usernameLimit);
+    }
+
+    /**
+     * A fresh address per test, so Redis counters from other tests in the same window do not interfere.
+     */
+    private static String randomIp() {
+        return "10." + UUID.randomUUID();
+    }
+}
@@ -0,0 +1,118 @@
+package com.learning.auth.security;
+
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.interfaces.ECPrivateKey;
+import java.security.spec.ECFieldFp;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.EllipticCurve;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SigningKeyRegistryTest {
+
+    @Test
+    void withoutManifestTheGreatestKidSigns() throws Exception {
+        Path dir = TestKeys.keyDirectory();
+        TestKeys.write(dir, "v1", TestKeys.generate("EC"));
+        TestKeys.write(dir, "v2", TestKeys.generate("EC"));
+
+        assertEquals("v2", TestKeys.registry(dir).activeKey().kid());
+    }
+
+    @Test
+    void keysMissingFromTheManifestDoNotSign() throws Exception {
+        // A ring being written: its manifest lists v1 and v3, the unlisted v2 must wait for its entry
+        Path dir = TestKeys.keyDirectory();
+        TestKeys.write(dir, "v1", TestKeys.generate("EC"));
+        TestKeys.write(dir, "v2", TestKeys.generate("EC"));
+        manifest(dir, "{\"kid\":\"v1\",\"activates_at\":" + Instant.now().minusSeconds(60).getEpochSecond() + "}",
+                "{\"kid\":\"v3\",\"activates_at\":" + Instant.now().minusSeconds(30).getEpochSecond() + "}");
+
+        SigningKeyRegistry registry = TestKeys.registry(dir);
+
+        assertEquals("v1", registry.activeKey().kid());
+        // Still loaded, so tokens it signed elsewhere verify and the JWKS lists it
+        assertEquals("v2", registry.findByKid("v2").kid());
+    }
+
+    @Test
+    void listedKeysSignOnceTheirActivationTimeHasPassed() throws Exception {
+        Path dir = TestKeys.keyDirectory();
+        TestKeys.write(dir, "v1", TestKeys.generate("EC"));
+        TestKeys.write(dir, "v2", TestKeys.generate("EC"));
+        manifest(dir, "{\"kid\":\"v1\",\"activates_at\":" + Instant.now().minusSeconds(60).getEpochSecond() + "}",
+                "{\"kid\":\"v2\",\"activates_at\":" + Instant.now().plusSeconds(3600).getEpochSecond() + "}");
+
+        assertEquals("v1", TestKeys.registry(dir).activeKey().kid());
+    }
+
+    @Test
+    void ecKeysSignWithTheAlgorithmOfTheirCurve() throws Exception {
+        assertEquals(Jwts.SIG.ES256, SigningKeyRegistry.algorithmFor(ecKey("secp256r1")));
+        assertEquals(Jwts.SIG.ES384, SigningKeyRegistry.algorithmFor(ecKey("secp384r1")));
+        assertEquals(Jwts.SIG.ES512, SigningKeyRegistry.algorithmFor(ecKey("secp521r1")));
+    }
+
+    @Test
+    void otherCurvesOfTheSameSizeAreRejected() {
+        // secp256k1: a 256-bit field like P-256, but no JWS algorithm uses it. The JDK no longer generates
+        // such keys, so only the parameters the registry looks at are provided.
+        BigInteger p = new BigInteger("FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFEFFFFFC2F", 16);
+        ECParameterSpec secp256k1 = new ECParameterSpec(
+                new EllipticCurve(new ECFieldFp(p), BigInteger.ZERO, BigInteger.valueOf(7)),
+                new ECPoint(new BigInteger("79BE667EF9DCBBAC55A06295CE870B07029BFCDB2DCE28D959F2815B16F81798", 16),
+                        new BigInteger("483ADA7726A3C4655DA4FBFC0E1108A8FD17B448A68554199C47D08FFB10D4B8", 16)),
+                new BigInteger("FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFEBAAEDCE6AF48A03BBFD25E8CD0364141", 16),
+                1);
+        ECPrivateKey key = new ECPrivateKey() {
+            @Override
+            public BigInteger getS() {
+                return BigInteger.ONE;
+            }
+
+            @Override
+            public ECParameterSpec getParams() {
+                return secp256k1;
+            }
+
+            @Override
+            public String getAlgorithm() {
+                return "EC";
+            }
+
+            @Override
+            public String getFormat() {
+                return null;
+            }
+
+            @Override
+            public byte[] getEncoded() {
+                return null;
+            }
+        };
+
+        assertThrows(IllegalArgumentException.class, () -> SigningKeyRegistry.algorithmFor(key));
+    }
+
+    private static PrivateKey ecKey(String curve) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec(curve));
+        return generator.generateKeyPair().getPrivate();
+    }
+
+    private static void manifest(Path dir, String... entries) throws Exception {
+        Files.writeString(dir.resolve(SigningKeyRegistry.MANIFEST_FILE), "{\"keys\":[" + String.join(",", entries) + "]}")
+                .toFile().deleteOnExit();
+    }
+}
@@ -0,0 +1,80 @@
+package com.learning.auth.security;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Throwaway signing keys, and a {@link JwtCodec} that signs and verifies with them.
+ */
+public final class TestKeys {
+
+    static final String KID = "test";
+
+    private TestKeys() {
+    }
+
+    /**
+     * A fresh key pair for {@code RSA}, {@code EC} (P-256) or {@code Ed25519}.
+     */
+    public static KeyPair generate(String algorithm) {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance(algorithm);
+            if (algorithm.equals("RSA")) {
+                generator.initialize(2048);
+            } else if (algorithm.equals("EC")) {
+                generator.initialize(new ECGenParameterSpec("secp256r1"));
+            }
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Failed to generate " + algorithm + " key pair", e);
+        }
+    }
+
+    /**
+     * A registry reading {@code keyPair} from a temporary key directory, as {@code auth.keys.dir} would.
+     */
+    public static SigningKeyRegistry registry(KeyPair keyPair) throws IOException {
+        Path dir = keyDirectory();
+        write(dir, KID, keyPair);
+        return registry(dir);
+    }
+
+    static SigningKeyRegistry registry(Path dir) {
+        SigningKeyRegistry registry = new SigningKeyRegistry(new PrivateKeyLoader(), new PublicKeyLoader(), dir.toString(), "", "", "default");
+        registry.init();
+        return registry;
+    }
+
+    static Path keyDirectory() throws IOException {
+        Path dir = Files.createTempDirectory("auth-test-keys");
+        dir.toFile().deleteOnExit();
+        return dir;
+    }
+
+    /**
+     * Writes {@code <kid>.private.pem} and {@code <kid>.public.pem} into {@code dir}.
+     */
+    static void write(Path dir, String kid, KeyPair keyPair) throws IOException {
+        Files.writeString(dir.resolve(kid + SigningKeyRegistry.PRIVATE_KEY_SUFFIX), pem(keyPair.getPrivate(), "PRIVATE KEY"))
+                .toFile().deleteOnExit();
+        Files.writeString(dir.resolve(kid + SigningKeyRegistry.PUBLIC_KEY_SUFFIX), pem(keyPair.getPublic(), "PUBLIC KEY"))
+                .toFile().deleteOnExit();
+    }
+
+    public static JwtCodec codec(SigningKeyRegistry registry) {
+        return new JwtCodec(registry, Duration.ofMinutes(15));
+    }
+
+    private static String pem(Key key, String type) {
+        String body = Base64.getMimeEncoder(64, new byte[]{'\n'}).encodeToString(key.getEncoded());
+        return "-----BEGIN " + type + "-----\n" + body + "\n-----END " + type + "-----\n";
+    }
+}
@@ -0,0 +1,88 @@
+package com.learning.auth.security;
+
+import com.learning.tokenstore.InMemoryTokenStore;
+import com.learning.tokenstore.TokenKeyFormat;
+import com.learning.tokenstore.TokenKeys;
+import com.learning.tokenstore.TokenStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenIntrospectorTest {
+
+    private InMemoryTokenStore tokenStore;
+    private SigningExecutor signingExecutor;
+    private JwtCodec codec;
+    private TokenIntrospector introspector;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        tokenStore = new InMemoryTokenStore(60_000);
+        signingExecutor = new SigningExecutor(new SimpleMeterRegistry(), 2, 256);
+        codec = TestKeys.codec(TestKeys.registry(TestKeys.generate("EC")));
+        // Chunks of 3 tokens verified in tasks of 2, so both boundaries fall inside the request
+        introspector = new TokenIntrospector(codec, signingExecutor, tokenStore, TokenKeyFormat.JTI, 3, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        signingExecutor.shutdown();
+        tokenStore.close();
+    }
+
+    @Test
+    void resultsFollowRequestOrderAcrossChunks() {
+        IssuedToken alice = whitelisted("alice");
+        IssuedToken bob = codec.signToken("bob", "USER");
+        IssuedToken carol = whitelisted("carol");
+        String tampered = alice.token().substring(0, alice.token().length() - 4) + "AAAA";
+
+        List<TokenIntrospection> results = introspector
+                .introspect(List.of(alice.token(), bob.token(), "not-a-jwt", tampered, carol.token()))
+                .collectList()
+                .block();
+
+        assertEquals(5, results.size());
+        assertActive(results.get(0), "alice", alice.jti());
+        assertFalse(results.get(1).active(), "signed but not whitelisted");
+        assertFalse(results.get(2).active(), "malformed");
+        assertFalse(results.get(3).active(), "bad signature");
+        assertActive(results.get(4), "carol", carol.jti());
+    }
+
+    @Test
+    void chunkWithoutAnyVerifiedTokenIsAllInactive() {
+        IssuedToken dave = whitelisted("dave");
+
+        List<TokenIntrospection> results = introspector
+                .introspect(List.of("a", "b", "c", dave.token()))
+                .collectList()
+                .block();
+
+        assertEquals(4, results.size());
+        results.subList(0, 3).forEach(result -> assertFalse(result.active()));
+        assertActive(results.get(3), "dave", dave.jti());
+    }
+
+    private IssuedToken whitelisted(String username) {
+        IssuedToken issued = codec.signToken(username, "USER");
+        tokenStore.putAll(List.of(new TokenStore.Entry(TokenKeys.forJti(issued.jti()), username, Duration.ofMinutes(15))))
+                .block();
+        return issued;
+    }
+
+    private static void assertActive(TokenIntrospection result, String sub, String jti) {
+        assertTrue(result.active());
+        assertEquals(sub, result.sub());
+        assertEquals(jti, result.jti());
+        assertEquals(List.of("USER"), result.roles());
+    }
+}
@@ -0,0 +1,91 @@
+package com.learning.auth.security;
+
+import com.learning.tokenstore.InMemoryTokenStore;
+import com.learning.tokenstore.TokenStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenRegistrationPipelineTest {
+
+    private static final int MAX_BATCH_SIZE = 16;
+
+    private final AtomicInteger flushes = new AtomicInteger();
+    private final InMemoryTokenStore tokenStore = new InMemoryTokenStore(60_000) {
+        @Override
+        public Mono<Void> putAll(List<Entry> batch) {
+            flushes.incrementAndGet();
+            return super.putAll(batch);
+        }
+    };
+
+    private TokenRegistrationPipeline pipeline;
+
+    @AfterEach
+    void tearDown() {
+        if (pipeline != null) {
+            pipeline.shutdown();
+        }
+        tokenStore.close();
+    }
+
+    @Test
+    void concurrentRegistrationsShareFlushes() {
+        // A window longer than the test, so only full batches are flushed
+        pipeline = pipeline(tokenStore, Duration.ofSeconds(30));
+        int registrations = 4 * MAX_BATCH_SIZE;
+
+        Flux.range(0, registrations)
+                .parallel()
+                .runOn(Schedulers.parallel())
+                .flatMap(i -> pipeline.register(List.of("jti:" + i), "user-" + i, Duration.ofMinutes(1)))
+                .then()
+                .block(Duration.ofSeconds(10));
+
+        assertTrue(flushes.get() <= (registrations + MAX_BATCH_SIZE - 1) / MAX_BATCH_SIZE,
+                "flushes: " + flushes.get());
+        for (int i = 0; i < registrations; i++) {
+            assertEquals("user-" + i, tokenStore.getAll(List.of("jti:" + i)).block().get(0));
+        }
+    }
+
+    @Test
+    void failedFlushFailsEveryCallerInTheBatch() {
+        TokenStore failingStore = new InMemoryTokenStore(60_000) {
+            @Override
+            public Mono<Void> putAll(List<Entry> batch) {
+                return Mono.error(new IllegalStateException("store down"));
+            }
+        };
+        pipeline = pipeline(failingStore, Duration.ofMillis(50));
+
+        List<Mono<Void>> callers = List.of(
+                pipeline.register(List.of("jti:a"), "alice", Duration.ofMinutes(1)).cache(),
+                pipeline.register(List.of("jti:b"), "bob", Duration.ofMinutes(1)).cache());
+        callers.forEach(caller -> caller.onErrorResume(e -> Mono.empty()).subscribe());
+
+        for (Mono<Void> caller : callers) {
+            TokenRegistrationException failure = assertThrows(TokenRegistrationException.class,
+                    () -> caller.block(Duration.ofSeconds(10)));
+            assertInstanceOf(IllegalStateException.class, failure.getCause());
+        }
+        failingStore.close();
+    }
+
+    private static TokenRegistrationPipeline pipeline(TokenStore store, Duration flushWindow) {
+        return new TokenRegistrationPipeline(store, new SimpleMeterRegistry(),
+                MAX_BATCH_SIZE, flushWindow, 8, Duration.ofSeconds(1));
+    }
+}
@@ -0,0 +1,48 @@
+package com.learning.benchmarks;
+
+import com.learning.resource.security.SecurityConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The roles-to-authorities mapping of {@code SecurityConfig.jwtAuthenticationConverter}.
+ */
+@State(Scope.Benchmark)
+public class AuthoritiesConversionBenchmark {
+
+    @Param({"1", "8", "64"})
+    public int roleCount;
+
+    private Converter<Jwt, Mono<AbstractAuthenticationToken>> converter;
+    private Jwt jwt;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        converter = new SecurityConfig().jwtAuthenticationConverter(new SimpleMeterRegistry());
+        Instant now = Instant.now();
+        jwt = Jwt.withTokenValue("bench-token")
+                .header("alg", "RS256")
+                .subject("bench-user")
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(3600))
+                .claim("roles", List.of(BenchmarkKeys.roles(roleCount).split(",")))
+                .build();
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken convert() {
+        return converter.convert(jwt).block();
+    }
+}
@@ -0,0 +1,87 @@
+package com.learning.benchmarks;
+
+import com.learning.keygenerator.EcKeyGenerator;
+import com.learning.keygenerator.Ed25519KeyGenerator;
+import com.learning.keygenerator.PemExporter;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.util.StringJoiner;
+
+/**
+ * Key material and claim shapes shared by the benchmarks.
+ */
+final class BenchmarkKeys {
+
+    static final String KID = "bench";
+
+    private BenchmarkKeys() {
+    }
+
+    static KeyPair generate(String keyType) {
+        try {
+            return switch (keyType) {
+                case "RSA-2048" -> rsa(2048);
+                case "RSA-3072" -> rsa(3072);
+                case "RSA-4096" -> rsa(4096);
+                case "EC-P256" -> new EcKeyGenerator().generateKeyPair();
+                case "Ed25519" -> new Ed25519KeyGenerator().generateKeyPair();
+                default -> throw new IllegalArgumentException("Unknown key type: " + keyType);
+            };
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Key type not supported by this JVM: " + keyType, e);
+        }
+    }
+
+    static SignatureAlgorithm algorithm(String keyType) {
+        return switch (keyType) {
+            case "EC-P256" -> Jwts.SIG.ES256;
+            case "Ed25519" -> Jwts.SIG.EdDSA;
+            default -> Jwts.SIG.RS256;
+        };
+    }
+
+    static String privatePem(KeyPair keyPair) {
+        return new PemExporter().exportToPem(keyPair.getPrivate(), "PRIVATE KEY");
+    }
+
+    static String publicPem(KeyPair keyPair) {
+        return new PemExporter().exportToPem(keyPair.getPublic(), "PUBLIC KEY");
+    }
+
+    /**
+     * Writes the key pair into a fresh key directory in the layout {@code SigningKeyRegistry} reads.
+     */
+    static Path writeKeyDirectory(KeyPair keyPair) throws IOException {
+        Path dir = Files.createTempDirectory("bench-keys");
+        dir.toFile().deleteOnExit();
+        Path privateKey = Files.writeString(dir.resolve(KID + ".private.pem"), privatePem(keyPair));
+        Path publicKey = Files.writeString(dir.resolve(KID + ".public.pem"), publicPem(keyPair));
+        privateKey.toFile().deleteOnExit();
+        publicKey.toFile().deleteOnExit();
+        return dir;
+    }
+
+    /**
+     * Comma separated role list in the format stored in {@code users.roles}.
+     */
+    static String roles(int count) {
+        StringJoiner joiner = new StringJoiner(",");
+        for (int i = 0; i < count; i++) {
+            joiner.add(i == 0 ? "USER" : "ROLE_" + i);
+        }
+        return joiner.toString();
+    }
+
+    private static KeyPair rsa(int bits) throws NoSuchAlgorithmException {
+        KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+        keyGen.initialize(bits);
+        return keyGen.generateKeyPair();
+    }
+}
@@ -0,0 +1,48 @@
+package com.learning.benchmarks;
+
+import com.learning.auth.security.PrivateKeyLoader;
+import com.learning.resource.security.PublicKeyLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+
+/**
+ * PEM decoding and {@code KeyFactory} parsing, as done by {@link PrivateKeyLoader} and
+ * {@link PublicKeyLoader}.
+ */
+@State(Scope.Benchmark)
+public class KeyParsingBenchmark {
+
+    @Param({"RSA-2048", "RSA-3072", "RSA-4096", "EC-P256", "Ed25519"})
+    public String keyType;
+
+    private final PrivateKeyLoader privateKeyLoader = new PrivateKeyLoader();
+    private final PublicKeyLoader publicKeyLoader = new PublicKeyLoader();
+
+    private String privatePem;
+    private String publicPem;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        KeyPair keyPair = BenchmarkKeys.generate(keyType);
+        privatePem = BenchmarkKeys.privatePem(keyPair);
+        publicPem = BenchmarkKeys.publicPem(keyPair);
+    }
+
+    @Benchmark
+    public PrivateKey parsePrivateKey() {
+        return privateKeyLoader.parsePrivateKey(privatePem);
+    }
+
+    @Benchmark
+    public PublicKey parsePublicKey() {
+        return publicKeyLoader.parsePublicKey(publicPem);
+    }
+}
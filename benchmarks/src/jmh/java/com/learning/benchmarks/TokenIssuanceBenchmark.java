@@ -0,0 +1,47 @@
+package com.learning.benchmarks;
+
+import com.learning.auth.security.IssuedToken;
+import com.learning.auth.security.JwtCodec;
+import com.learning.auth.security.PrivateKeyLoader;
+import com.learning.auth.security.PublicKeyLoader;
+import com.learning.auth.security.SigningKeyRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Duration;
+
+/**
+ * Cost of {@link JwtCodec#signToken}, the work {@code JwtService.generateToken} runs on the signing pool:
+ * claim building, serialization and signing.
+ */
+@State(Scope.Benchmark)
+public class TokenIssuanceBenchmark {
+
+    @Param({"RSA-2048", "RSA-3072", "RSA-4096", "EC-P256", "Ed25519"})
+    public String keyType;
+
+    @Param({"1", "8", "64"})
+    public int roleCount;
+
+    private JwtCodec codec;
+    private String roles;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        SigningKeyRegistry registry = new SigningKeyRegistry(new PrivateKeyLoader(), new PublicKeyLoader(),
+                BenchmarkKeys.writeKeyDirectory(BenchmarkKeys.generate(keyType)).toString(), "", "", "default");
+        registry.init();
+
+        codec = new JwtCodec(registry, Duration.ofMinutes(15));
+        roles = BenchmarkKeys.roles(roleCount);
+    }
+
+    @Benchmark
+    public IssuedToken signToken() {
+        return codec.signToken("bench-user", roles);
+    }
+}
@@ -0,0 +1,66 @@
+package com.learning.benchmarks;
+
+import com.learning.resource.security.SignatureDecoders;
+import com.learning.resource.security.VerificationKeys;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWK;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+
+import reactor.core.publisher.Flux;
+
+import java.security.KeyPair;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Signature verification and claim parsing in the {@link NimbusReactiveJwtDecoder} built by
+ * {@link SignatureDecoders}, the decoder behind resource-service's {@code jwtDecoder} bean (without the
+ * Redis whitelist check).
+ */
+@State(Scope.Benchmark)
+public class TokenVerificationBenchmark {
+
+    @Param({"RSA-2048", "RSA-3072", "RSA-4096", "EC-P256", "Ed25519"})
+    public String keyType;
+
+    @Param({"1", "8", "64"})
+    public int roleCount;
+
+    private NimbusReactiveJwtDecoder decoder;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        KeyPair keyPair = BenchmarkKeys.generate(keyType);
+        JWK jwk = VerificationKeys.toJwk(BenchmarkKeys.KID, keyPair.getPublic());
+        decoder = SignatureDecoders.create(jwt -> Flux.just(jwk),
+                Set.of(JWSAlgorithm.RS256, JWSAlgorithm.ES256, JWSAlgorithm.EdDSA));
+
+        long now = System.currentTimeMillis();
+        token = Jwts.builder()
+                .header().keyId(BenchmarkKeys.KID).add("typ", "JWT").and()
+                .subject("bench-user")
+                .id(UUID.randomUUID().toString())
+                .issuedAt(new Date(now))
+                // Long enough that the token does not expire during the run
+                .expiration(new Date(now + 24 * 3600 * 1000L))
+                .claims(Map.of("roles", BenchmarkKeys.roles(roleCount).split(",")))
+                .signWith(keyPair.getPrivate(), BenchmarkKeys.algorithm(keyType))
+                .compact();
+    }
+
+    @Benchmark
+    public Jwt decode() {
+        return decoder.decode(token).block();
+    }
+}
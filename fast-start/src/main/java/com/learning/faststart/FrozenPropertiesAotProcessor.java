@@ -0,0 +1,125 @@
+package com.learning.faststart;
+
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotContribution;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionEvaluationReport;
+import org.springframework.core.annotation.MergedAnnotation;
+import org.springframework.core.annotation.MergedAnnotations;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.core.type.classreading.SimpleMetadataReaderFactory;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+/**
+ * Records, during Spring AOT processing, the build-time value of every property read by a
+ * {@code @ConditionalOnProperty} or {@code @ConditionalOnBooleanProperty} that was evaluated, in the
+ * services and in auto-configuration alike. AOT fixes the outcome of those conditions in the generated
+ * code; {@link FrozenPropertiesVerifier} compares the recorded values with the runtime environment when
+ * that code is used.
+ * <p>
+ * The properties are found through the {@link ConditionEvaluationReport} of the AOT run, so a condition
+ * added later is covered without any list to maintain. Classes are read with ASM, as the condition
+ * evaluation itself does, since auto-configuration whose classes are missing cannot be loaded.
+ * <p>
+ * Registered in {@code META-INF/spring/aot.factories}; it does nothing outside AOT processing.
+ */
+public class FrozenPropertiesAotProcessor implements BeanFactoryInitializationAotProcessor {
+
+    static final String RESOURCE = "META-INF/fast-start/frozen-properties.properties";
+    static final String NAMES_KEY = "names";
+    static final String VALUE_PREFIX = "value.";
+
+    private static final String PROPERTY_CONDITION = "org.springframework.boot.autoconfigure.condition.OnPropertyCondition";
+    private static final Set<String> PROPERTY_ANNOTATIONS = Set.of(
+            "org.springframework.boot.autoconfigure.condition.ConditionalOnProperty",
+            "org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty");
+
+    @Override
+    public BeanFactoryInitializationAotContribution processAheadOfTime(ConfigurableListableBeanFactory beanFactory) {
+        Environment environment = beanFactory.getBean(Environment.class);
+        MetadataReaderFactory metadataReaders = new SimpleMetadataReaderFactory(beanFactory.getBeanClassLoader());
+        Set<String> names = new TreeSet<>();
+        for (Map.Entry<String, ConditionEvaluationReport.ConditionAndOutcomes> source
+                : ConditionEvaluationReport.get(beanFactory).getConditionAndOutcomesBySource().entrySet()) {
+            for (ConditionEvaluationReport.ConditionAndOutcome evaluated : source.getValue()) {
+                if (evaluated.getCondition().getClass().getName().equals(PROPERTY_CONDITION)) {
+                    names.addAll(propertyNames(metadataReaders, source.getKey()));
+                    break;
+                }
+            }
+        }
+        if (names.isEmpty()) {
+            return null;
+        }
+        Properties frozen = new Properties();
+        frozen.setProperty(NAMES_KEY, String.join(",", names));
+        for (String name : names) {
+            String value = environment.getProperty(name);
+            if (value != null) {
+                frozen.setProperty(VALUE_PREFIX + name, value);
+            }
+        }
+        return (generationContext, code) -> {
+            generationContext.getGeneratedFiles().addResourceFile(RESOURCE, render(frozen));
+            generationContext.getRuntimeHints().resources().registerPattern(RESOURCE);
+        };
+    }
+
+    /**
+     * Properties named by the property conditions on a report source: a class, or {@code Class#method}
+     * for a {@code @Bean} method.
+     */
+    private static Set<String> propertyNames(MetadataReaderFactory metadataReaders, String source) {
+        int separator = source.indexOf('#');
+        String className = separator < 0 ? source : source.substring(0, separator);
+        AnnotationMetadata metadata;
+        try {
+            metadata = metadataReaders.getMetadataReader(className).getAnnotationMetadata();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read conditions of " + className, e);
+        }
+        Stream<MergedAnnotations> annotations = separator < 0
+                ? Stream.of(metadata.getAnnotations())
+                : PROPERTY_ANNOTATIONS.stream()
+                        .flatMap(type -> metadata.getAnnotatedMethods(type).stream())
+                        .filter(method -> method.getMethodName().equals(source.substring(separator + 1)))
+                        .map(MethodMetadata::getAnnotations);
+        Set<String> names = new TreeSet<>();
+        annotations.flatMap(merged -> PROPERTY_ANNOTATIONS.stream().flatMap(merged::stream))
+                .forEach(condition -> names.addAll(propertyNames(condition)));
+        return names;
+    }
+
+    private static Set<String> propertyNames(MergedAnnotation<?> condition) {
+        // Same composition as OnPropertyCondition: prefix, a dot unless it already ends with one, then each name
+        String prefix = condition.getString("prefix").trim();
+        if (!prefix.isEmpty() && !prefix.endsWith(".")) {
+            prefix = prefix + ".";
+        }
+        Set<String> names = new TreeSet<>();
+        for (String name : condition.getStringArray("name")) {
+            names.add(prefix + name);
+        }
+        return names;
+    }
+
+    private static String render(Properties properties) {
+        try {
+            StringWriter out = new StringWriter();
+            properties.store(out, "Properties read by bean conditions, as they were at AOT processing time");
+            return out.toString();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to render frozen properties", e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.learning.faststart;
+
+import org.springframework.aot.AotDetector;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * Fails startup when an AOT-processed build ({@code -Dspring.aot.enabled=true}) runs with a different value
+ * for one of the properties recorded by {@link FrozenPropertiesAotProcessor}. The generated bean definitions
+ * would otherwise keep the build-time choice (say, {@code tokens.store.type=redis}) and silently ignore the
+ * runtime setting.
+ * <p>
+ * Runs after the configuration files are loaded; registered in {@code META-INF/spring.factories}.
+ */
+public class FrozenPropertiesVerifier implements EnvironmentPostProcessor, Ordered {
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        ClassPathResource resource = new ClassPathResource(FrozenPropertiesAotProcessor.RESOURCE);
+        if (!AotDetector.useGeneratedArtifacts() || !resource.exists()) {
+            return;
+        }
+        Properties frozen;
+        try {
+            frozen = PropertiesLoaderUtils.loadProperties(resource);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read " + FrozenPropertiesAotProcessor.RESOURCE, e);
+        }
+        List<String> mismatches = new ArrayList<>();
+        for (String name : frozen.getProperty(FrozenPropertiesAotProcessor.NAMES_KEY, "").split(",")) {
+            if (name.isBlank()) {
+                continue;
+            }
+            String built = frozen.getProperty(FrozenPropertiesAotProcessor.VALUE_PREFIX + name);
+            String actual = environment.getProperty(name);
+            if (!Objects.equals(built, actual)) {
+                mismatches.add(name + "=" + actual + " (built with " + built + ")");
+            }
+        }
+        if (!mismatches.isEmpty()) {
+            throw new IllegalStateException("This AOT build fixed bean conditions at build time, but " + String.join(", ", mismatches)
+                    + ". Rebuild with -PfastStart and these values, or start without -Dspring.aot.enabled=true");
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        // After ConfigDataEnvironmentPostProcessor has loaded application.yml and profiles
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,60 @@
+package com.learning.faststart;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.generate.ClassNameGenerator;
+import org.springframework.aot.generate.DefaultGenerationContext;
+import org.springframework.aot.generate.GeneratedFiles;
+import org.springframework.aot.generate.InMemoryGeneratedFiles;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.javapoet.ClassName;
+
+import java.io.StringReader;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class FrozenPropertiesAotProcessorTest {
+
+    @Test
+    void recordsEveryPropertyReadByAnEvaluatedCondition() throws Exception {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.getEnvironment().getPropertySources()
+                    .addFirst(new MapPropertySource("test", Map.of("tokens.store.type", "memory")));
+            context.register(ConditionalBeans.class);
+            context.refresh();
+
+            InMemoryGeneratedFiles files = new InMemoryGeneratedFiles();
+            new FrozenPropertiesAotProcessor().processAheadOfTime(context.getBeanFactory())
+                    .applyTo(new DefaultGenerationContext(new ClassNameGenerator(ClassName.get(getClass())), files), null);
+
+            Properties frozen = new Properties();
+            frozen.load(new StringReader(files.getGeneratedFileContent(GeneratedFiles.Kind.RESOURCE, FrozenPropertiesAotProcessor.RESOURCE)));
+            // Both conditions count, the one that matched and the one that did not
+            assertEquals("sample.warm-up.enabled,tokens.store.type", frozen.getProperty(FrozenPropertiesAotProcessor.NAMES_KEY));
+            assertEquals("memory", frozen.getProperty(FrozenPropertiesAotProcessor.VALUE_PREFIX + "tokens.store.type"));
+            assertNull(frozen.getProperty(FrozenPropertiesAotProcessor.VALUE_PREFIX + "sample.warm-up.enabled"));
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class ConditionalBeans {
+
+        @Bean
+        @ConditionalOnProperty(name = "tokens.store.type", havingValue = "redis")
+        String redisStore() {
+            return "redis";
+        }
+
+        @Bean
+        @ConditionalOnProperty(prefix = "sample.warm-up", name = "enabled", havingValue = "true", matchIfMissing = true)
+        String warmUp() {
+            return "warm-up";
+        }
+    }
+}
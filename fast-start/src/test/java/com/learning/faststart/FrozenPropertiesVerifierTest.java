@@ -0,0 +1,56 @@
+package com.learning.faststart;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.core.SpringProperties;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FrozenPropertiesVerifierTest {
+
+    private final FrozenPropertiesVerifier verifier = new FrozenPropertiesVerifier();
+
+    @AfterEach
+    void disableAot() {
+        SpringProperties.setProperty("spring.aot.enabled", null);
+    }
+
+    @Test
+    void acceptsTheBuildTimeValues() {
+        SpringProperties.setFlag("spring.aot.enabled");
+        MockEnvironment environment = new MockEnvironment().withProperty("tokens.store.type", "redis");
+
+        assertDoesNotThrow(() -> verifier.postProcessEnvironment(environment, new SpringApplication()));
+    }
+
+    @Test
+    void refusesAChangedProperty() {
+        SpringProperties.setFlag("spring.aot.enabled");
+        MockEnvironment environment = new MockEnvironment().withProperty("tokens.store.type", "memory");
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> verifier.postProcessEnvironment(environment, new SpringApplication()));
+        assertTrue(e.getMessage().contains("tokens.store.type=memory (built with redis)"), e.getMessage());
+    }
+
+    @Test
+    void refusesAPropertySetOnlyAtRuntime() {
+        SpringProperties.setFlag("spring.aot.enabled");
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("tokens.store.type", "redis")
+                .withProperty("auth.warm-up.enabled", "false");
+
+        assertThrows(IllegalStateException.class, () -> verifier.postProcessEnvironment(environment, new SpringApplication()));
+    }
+
+    @Test
+    void ignoresRunsWithoutAot() {
+        MockEnvironment environment = new MockEnvironment().withProperty("tokens.store.type", "memory");
+
+        assertDoesNotThrow(() -> verifier.postProcessEnvironment(environment, new SpringApplication()));
+    }
+}
@@ -0,0 +1,96 @@
+package com.learning.jwk;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.EdECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The key-type members of a public JWK ({@code kty} plus {@code n}/{@code e}, {@code crv}/{@code x}/{@code y}
+ * or {@code crv}/{@code x}) for RSA, EC and Ed25519 keys.
+ * <p>
+ * Used for the {@code keyring.json} manifest, auth-service's JWKS and resource-service's local verification
+ * keys, so a key is encoded the same way wherever it is published.
+ */
+public final class PublicJwk {
+
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+
+    // DER prefix of an Ed25519 SubjectPublicKeyInfo; the 32 raw key bytes follow it
+    private static final byte[] ED25519_X509_PREFIX = {
+            0x30, 0x2a, 0x30, 0x05, 0x06, 0x03, 0x2b, 0x65, 0x70, 0x03, 0x21, 0x00
+    };
+    private static final int ED25519_KEY_LENGTH = 32;
+
+    private PublicJwk() {
+    }
+
+    /**
+     * The members describing {@code publicKey}, in a fixed order; {@code kid}, {@code alg} and {@code use}
+     * are up to the caller.
+     */
+    public static Map<String, String> members(PublicKey publicKey) {
+        Map<String, String> jwk = new LinkedHashMap<>();
+        if (publicKey instanceof RSAPublicKey rsaKey) {
+            jwk.put("kty", "RSA");
+            jwk.put("n", base64url(rsaKey.getModulus(), (rsaKey.getModulus().bitLength() + 7) / 8));
+            jwk.put("e", base64url(rsaKey.getPublicExponent(), (rsaKey.getPublicExponent().bitLength() + 7) / 8));
+        } else if (publicKey instanceof ECPublicKey ecKey) {
+            int fieldSize = ecKey.getParams().getCurve().getField().getFieldSize();
+            int length = (fieldSize + 7) / 8;
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-" + fieldSize);
+            jwk.put("x", base64url(ecKey.getW().getAffineX(), length));
+            jwk.put("y", base64url(ecKey.getW().getAffineY(), length));
+        } else if (publicKey instanceof EdECPublicKey) {
+            jwk.put("kty", "OKP");
+            jwk.put("crv", "Ed25519");
+            jwk.put("x", BASE64URL.encodeToString(rawEd25519(publicKey)));
+        } else {
+            throw new IllegalArgumentException("Unsupported public key type: " + publicKey.getAlgorithm());
+        }
+        return jwk;
+    }
+
+    /**
+     * Rebuilds an Ed25519 public key from the 32 raw bytes of a JWK's {@code x}.
+     */
+    public static PublicKey ed25519(byte[] raw) throws GeneralSecurityException {
+        if (raw.length != ED25519_KEY_LENGTH) {
+            throw new GeneralSecurityException("Ed25519 keys are " + ED25519_KEY_LENGTH + " bytes, got " + raw.length);
+        }
+        byte[] encoded = Arrays.copyOf(ED25519_X509_PREFIX, ED25519_X509_PREFIX.length + raw.length);
+        System.arraycopy(raw, 0, encoded, ED25519_X509_PREFIX.length, raw.length);
+        return KeyFactory.getInstance("Ed25519").generatePublic(new X509EncodedKeySpec(encoded));
+    }
+
+    private static byte[] rawEd25519(PublicKey publicKey) {
+        byte[] encoded = publicKey.getEncoded();
+        // Ed448 keys are also EdEC keys, with another prefix and length
+        if (encoded.length != ED25519_X509_PREFIX.length + ED25519_KEY_LENGTH
+                || !Arrays.equals(encoded, 0, ED25519_X509_PREFIX.length, ED25519_X509_PREFIX, 0, ED25519_X509_PREFIX.length)) {
+            throw new IllegalArgumentException("Unsupported EdDSA key, only Ed25519 is supported");
+        }
+        return Arrays.copyOfRange(encoded, ED25519_X509_PREFIX.length, encoded.length);
+    }
+
+    /**
+     * Big-endian unsigned bytes left-padded to {@code length}, as JWK coordinates require.
+     */
+    private static String base64url(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        // Drop the sign byte or left-pad, so the value is exactly length bytes
+        byte[] out = new byte[length];
+        int copy = Math.min(bytes.length, length);
+        System.arraycopy(bytes, bytes.length - copy, out, length - copy, copy);
+        return BASE64URL.encodeToString(out);
+    }
+}
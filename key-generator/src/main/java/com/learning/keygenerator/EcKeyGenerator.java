@@ -0,0 +1,19 @@
+package com.learning.keygenerator;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+
+public class EcKeyGenerator {
+
+    public KeyPair generateKeyPair() {
+        try {
+            KeyPairGenerator keyGen = KeyPairGenerator.getInstance("EC");
+            keyGen.initialize(new ECGenParameterSpec("secp256r1"));
+            return keyGen.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Failed to generate EC P-256 key pair", e);
+        }
+    }
+}
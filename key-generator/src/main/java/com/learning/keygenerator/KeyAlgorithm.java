@@ -0,0 +1,32 @@
+package com.learning.keygenerator;
+
+import java.security.KeyPair;
+import java.util.function.Supplier;
+
+/**
+ * JWS algorithms the services can sign and verify with, and the key pairs they need.
+ */
+public enum KeyAlgorithm {
+    RS256(() -> new RsaKeyGenerator().generateKeyPair()),
+    ES256(() -> new EcKeyGenerator().generateKeyPair()),
+    EdDSA(() -> new Ed25519KeyGenerator().generateKeyPair());
+
+    private final Supplier<KeyPair> generator;
+
+    KeyAlgorithm(Supplier<KeyPair> generator) {
+        this.generator = generator;
+    }
+
+    public KeyPair generateKeyPair() {
+        return generator.get();
+    }
+
+    public static KeyAlgorithm fromName(String name) {
+        for (KeyAlgorithm algorithm : values()) {
+            if (algorithm.name().equalsIgnoreCase(name)) {
+                return algorithm;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported algorithm: " + name + " (expected RS256, ES256 or EdDSA)");
+    }
+}
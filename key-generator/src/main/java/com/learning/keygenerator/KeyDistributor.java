@@ -1,21 +1,46 @@
 package com.learning.keygenerator;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardCopyOption;
 
 public class KeyDistributor {
 
     public void saveKey(String content, String pathStr) {
+        saveKey(content, Paths.get(pathStr));
+    }
+
+    /**
+     * Writes {@code content} to a temporary file next to {@code path} and renames it into place, so a
+     * service polling the directory sees either the old file or the complete new one, never a partial write.
+     */
+    public void saveKey(String content, Path path) {
+        Path temp = null;
         try {
-            Path path = Paths.get(pathStr);
-            Files.createDirectories(path.getParent());
-            Files.writeString(path, content, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+            Path dir = path.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            // Dot-prefixed and not ending in .pem, so key directory scans skip it
+            temp = Files.createTempFile(dir, "." + path.getFileName(), ".tmp");
+            Files.writeString(temp, content, StandardCharsets.UTF_8);
+            try {
+                Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
             System.out.println("Key saved to: " + path.toAbsolutePath());
         } catch (IOException e) {
-            throw new RuntimeException("Failed to save key to " + pathStr, e);
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // Best effort; the original error is the one worth reporting
+                }
+            }
+            throw new RuntimeException("Failed to save key to " + path, e);
         }
     }
 }
@@ -0,0 +1,60 @@
+package com.learning.keygenerator;
+
+import java.security.KeyPair;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates a ring of key pairs for scheduled rotation, one per core in parallel.
+ * <p>
+ * Key {@code i} activates at {@code firstActivation + i * interval}. Its {@code kid} starts with that
+ * time ({@code 20250101T000000Z-es256}), so later keys sort after earlier ones, which is the order
+ * {@code auth-service} uses to pick the signing key.
+ */
+public class KeyRingGenerator {
+
+    private static final DateTimeFormatter KID_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+            .withZone(ZoneOffset.UTC);
+
+    public record RingKey(String kid, KeyAlgorithm algorithm, KeyPair keyPair, Instant activatesAt) {
+    }
+
+    public List<RingKey> generate(KeyAlgorithm algorithm, int count, Instant firstActivation, Duration interval) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Key ring size must be at least 1");
+        }
+        if (count > 1 && interval.toSeconds() < 1) {
+            throw new IllegalArgumentException("Rotation interval must be at least one second, kids are second-precision");
+        }
+        Instant first = firstActivation.truncatedTo(ChronoUnit.SECONDS);
+        int threads = Math.min(count, Runtime.getRuntime().availableProcessors());
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            List<Future<KeyPair>> pairs = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                pairs.add(executor.submit(algorithm::generateKeyPair));
+            }
+            List<RingKey> ring = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Instant activatesAt = first.plus(interval.multipliedBy(i));
+                String kid = KID_TIME.format(activatesAt) + "-" + algorithm.name().toLowerCase(Locale.ROOT);
+                ring.add(new RingKey(kid, algorithm, pairs.get(i).get(), activatesAt));
+            }
+            return ring;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while generating key ring", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to generate key ring", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.learning.keygenerator;
+
+import com.learning.jwk.PublicJwk;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * {@code keyring.json}: a JWK Set of the public keys in a key directory, each with its {@code kid},
+ * {@code alg} and {@code activates_at} (epoch seconds).
+ * <p>
+ * One key per line, so entries of earlier rings can be carried over without a JSON parser: a new ring
+ * replaces entries with the same {@code kid} and keeps the others whose private key is still present.
+ */
+public class KeyRingManifest {
+
+    public static final String FILE_NAME = "keyring.json";
+
+    private static final Pattern KID = Pattern.compile("\"kid\":\"([^\"]+)\"");
+
+    public String render(Path keysDir, List<KeyRingGenerator.RingKey> ring) {
+        Map<String, String> entries = new LinkedHashMap<>();
+        for (String line : existingEntries(keysDir)) {
+            Matcher kid = KID.matcher(line);
+            if (kid.find() && Files.exists(keysDir.resolve(kid.group(1) + ".private.pem"))) {
+                entries.put(kid.group(1), line);
+            }
+        }
+        for (KeyRingGenerator.RingKey key : ring) {
+            entries.put(key.kid(), toJwk(key));
+        }
+        return "{\"keys\":[\n" + String.join(",\n", entries.values()) + "\n]}\n";
+    }
+
+    private static List<String> existingEntries(Path keysDir) {
+        Path manifest = keysDir.resolve(FILE_NAME);
+        if (!Files.exists(manifest)) {
+            return List.of();
+        }
+        try {
+            List<String> entries = new ArrayList<>();
+            for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+                String trimmed = line.strip();
+                if (trimmed.startsWith("{\"kid\":")) {
+                    entries.add(trimmed.endsWith(",") ? trimmed.substring(0, trimmed.length() - 1) : trimmed);
+                }
+            }
+            return entries;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read existing manifest " + manifest, e);
+        }
+    }
+
+    static String toJwk(KeyRingGenerator.RingKey key) {
+        StringBuilder jwk = new StringBuilder()
+                .append("{\"kid\":\"").append(key.kid())
+                .append("\",\"alg\":\"").append(key.algorithm().name())
+                .append("\",\"use\":\"sig\"");
+        // Member values are names and Base64url, so they need no JSON escaping
+        PublicJwk.members(key.keyPair().getPublic())
+                .forEach((name, value) -> jwk.append(",\"").append(name).append("\":\"").append(value).append('"'));
+        return jwk.append(",\"activates_at\":").append(key.activatesAt().getEpochSecond()).append('}').toString();
+    }
+}
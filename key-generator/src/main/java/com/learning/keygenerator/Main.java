@@ -1,17 +1,28 @@
 package com.learning.keygenerator;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.security.KeyPair;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 
 public class Main {
 
     public static void main(String[] args) {
-        System.out.println("Starting Key Generation...");
+        if (args.length > 0 && args[0].equals("ring")) {
+            generateRing(args);
+            return;
+        }
+
+        // Optional first argument: RS256 (default), ES256 or EdDSA
+        KeyAlgorithm algorithm = args.length > 0 ? KeyAlgorithm.fromName(args[0]) : KeyAlgorithm.RS256;
+        System.out.println("Starting Key Generation (" + algorithm + ")...");
 
-        RsaKeyGenerator generator = new RsaKeyGenerator();
         PemExporter exporter = new PemExporter();
         KeyDistributor distributor = new KeyDistributor();
 
-        KeyPair keyPair = generator.generateKeyPair();
+        KeyPair keyPair = algorithm.generateKeyPair();
 
         String privateKeyPem = exporter.exportToPem(keyPair.getPrivate(), "PRIVATE KEY");
         String publicKeyPem = exporter.exportToPem(keyPair.getPublic(), "PUBLIC KEY");
@@ -25,4 +36,33 @@ public class Main {
 
         System.out.println("Keys generated and distributed successfully.");
     }
+
+    /**
+     * {@code ring <algorithm> <count> <output-dir> [rotation-interval]}, e.g. {@code ring ES256 4 /etc/auth/keys P30D}.
+     */
+    private static void generateRing(String[] args) {
+        if (args.length < 4) {
+            throw new IllegalArgumentException("Usage: ring <RS256|ES256|EdDSA> <count> <output-dir> [rotation-interval, default P30D]");
+        }
+        KeyAlgorithm algorithm = KeyAlgorithm.fromName(args[1]);
+        int count = Integer.parseInt(args[2]);
+        Path outputDir = Paths.get(args[3]);
+        Duration interval = args.length > 4 ? Duration.parse(args[4]) : Duration.ofDays(30);
+        System.out.println("Generating " + count + " " + algorithm + " keys, one every " + interval + "...");
+
+        List<KeyRingGenerator.RingKey> ring = new KeyRingGenerator().generate(algorithm, count, Instant.now(), interval);
+
+        PemExporter exporter = new PemExporter();
+        KeyDistributor distributor = new KeyDistributor();
+        // Manifest first: auth-service lets unlisted keys sign at once, so a key file seen before its
+        // activates_at entry would take over signing ahead of schedule. Listed kids without files are ignored.
+        distributor.saveKey(new KeyRingManifest().render(outputDir, ring), outputDir.resolve(KeyRingManifest.FILE_NAME));
+        for (KeyRingGenerator.RingKey key : ring) {
+            // Public key first: a private key without its public half is not loadable for EC and EdDSA
+            distributor.saveKey(exporter.exportToPem(key.keyPair().getPublic(), "PUBLIC KEY"), outputDir.resolve(key.kid() + ".public.pem"));
+            distributor.saveKey(exporter.exportToPem(key.keyPair().getPrivate(), "PRIVATE KEY"), outputDir.resolve(key.kid() + ".private.pem"));
+        }
+
+        ring.forEach(key -> System.out.println(key.kid() + " activates at " + key.activatesAt()));
+    }
 }
@@ -0,0 +1,91 @@
+package com.learning.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-operation latency histograms and error counts of the measured part of a run.
+ * <p>
+ * Latency is taken from the moment a request was scheduled to start, not from when it was sent, so time
+ * spent waiting behind a saturated service is included (no coordinated omission). Arrivals the driver had to
+ * drop because {@code max-in-flight} requests were already open are recorded as failures at the request
+ * timeout, in their own {@code dropped} row and in the total, so saturation shows up in the percentiles.
+ */
+final class LatencyReport {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final Histogram dropped = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+
+    LatencyReport() {
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    void record(Operation operation, long latencyNanos, boolean success) {
+        latencies.get(operation).recordValue(micros(latencyNanos));
+        if (!success) {
+            errors.get(operation).increment();
+        }
+    }
+
+    /**
+     * An arrival that was never sent; {@code latencyNanos} is what the client would have waited for, the request timeout.
+     */
+    void recordDropped(long latencyNanos) {
+        dropped.recordValue(micros(latencyNanos));
+    }
+
+    void print(Duration measured, PrintStream out) {
+        double seconds = measured.toNanos() / 1e9;
+        Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        long totalErrors = 0;
+
+        out.printf("%-8s %10s %10s %8s %10s %10s %10s %10s%n",
+                "op", "count", "req/s", "errors", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = latencies.get(operation);
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            long operationErrors = errors.get(operation).sum();
+            printRow(out, operation.name().toLowerCase(), histogram, operationErrors, seconds);
+            total.add(histogram);
+            totalErrors += operationErrors;
+        }
+        if (dropped.getTotalCount() > 0) {
+            // Never sent, so every one is a failure
+            printRow(out, "dropped", dropped, dropped.getTotalCount(), seconds);
+            total.add(dropped);
+            totalErrors += dropped.getTotalCount();
+        }
+        printRow(out, "total", total, totalErrors, seconds);
+    }
+
+    private static long micros(long nanos) {
+        return Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_TRACKABLE_MICROS);
+    }
+
+    private static void printRow(PrintStream out, String name, Histogram histogram, long errors, double seconds) {
+        out.printf("%-8s %10d %10.1f %8d %10.2f %10.2f %10.2f %10.2f%n",
+                name,
+                histogram.getTotalCount(),
+                histogram.getTotalCount() / seconds,
+                errors,
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0);
+    }
+}
@@ -0,0 +1,177 @@
+package com.learning.loadtest;
+
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Starts operations at a fixed arrival rate, picked at random according to the configured mix.
+ * <p>
+ * Operations work on a fixed set of session slots; even slots belong to {@code admin} and odd ones to
+ * {@code user}, the two accounts in auth-service's {@code data.sql}. Refresh and revoke take their slot
+ * exclusively so a refresh token is never presented twice; a slot left empty logs in on its next turn.
+ */
+final class LoadDriver {
+
+    private static final Map<String, String> PASSWORDS = Map.of("admin", "123456", "user", "password");
+    private static final Map<String, List<String>> ENDPOINTS = Map.of(
+            "admin", List.of("/api/secure-data", "/api/admin", "/api/users/admin"),
+            "user", List.of("/api/secure-data", "/api/user", "/api/users/user"));
+    private static final ParameterizedTypeReference<Map<String, String>> TOKEN_RESPONSE = new ParameterizedTypeReference<>() {
+    };
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final LoadTestOptions options;
+    private final LatencyReport report;
+    private final WebClient authClient;
+    private final WebClient resourceClient;
+    private final AtomicReferenceArray<Session> sessions;
+    private final Operation[] schedule;
+
+    LoadDriver(LoadTestOptions options, LatencyReport report, String authBaseUrl, String resourceBaseUrl) {
+        this.options = options;
+        this.report = report;
+        HttpClient httpClient = HttpClient.create(ConnectionProvider.builder("load-test")
+                .maxConnections(options.maxInFlight())
+                .pendingAcquireMaxCount(-1)
+                .build());
+        WebClient.Builder builder = WebClient.builder().clientConnector(new ReactorClientHttpConnector(httpClient));
+        this.authClient = builder.clone().baseUrl(authBaseUrl).build();
+        this.resourceClient = builder.clone().baseUrl(resourceBaseUrl).build();
+        this.sessions = new AtomicReferenceArray<>(options.sessions());
+
+        // One entry per unit of weight, so picking an operation is a single random index
+        List<Operation> weighted = new ArrayList<>();
+        options.mix().forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(operation);
+            }
+        });
+        this.schedule = weighted.toArray(Operation[]::new);
+    }
+
+    /**
+     * Logs every session slot in before the run, so the first api calls have tokens to use.
+     */
+    void populateSessions() {
+        Flux.range(0, sessions.length())
+                .flatMap(slot -> login(slot).map(session -> {
+                    sessions.set(slot, session);
+                    return session;
+                }), 32)
+                .blockLast();
+    }
+
+    void run(Duration warmup, Duration duration) {
+        long periodNanos = 1_000_000_000L / options.rate();
+        long warmupTicks = warmup.toNanos() / periodNanos;
+        long totalTicks = warmupTicks + duration.toNanos() / periodNanos;
+        long start = System.nanoTime();
+
+        Flux.interval(Duration.ofNanos(periodNanos))
+                .take(totalTicks)
+                .onBackpressureDrop(tick -> {
+                    if (tick >= warmupTicks) {
+                        // Counted as if the request had been sent and timed out, so the percentiles include it
+                        report.recordDropped(REQUEST_TIMEOUT.toNanos());
+                    }
+                })
+                .flatMap(tick -> execute(start + (tick + 1) * periodNanos, tick >= warmupTicks), options.maxInFlight())
+                .blockLast();
+    }
+
+    private Mono<Void> execute(long intendedStart, boolean measured) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int slot = random.nextInt(sessions.length());
+        Operation operation = schedule[random.nextInt(schedule.length)];
+
+        Session session = switch (operation) {
+            case LOGIN -> null;
+            case API -> sessions.get(slot);
+            case REFRESH, REVOKE -> sessions.getAndSet(slot, null);
+        };
+        if (operation != Operation.LOGIN && session == null) {
+            operation = Operation.LOGIN;
+        }
+
+        Operation executed = operation;
+        Mono<Boolean> request = switch (executed) {
+            case LOGIN -> login(slot).map(next -> {
+                sessions.set(slot, next);
+                return true;
+            });
+            case REFRESH -> refresh(session).map(next -> {
+                sessions.set(slot, next);
+                return true;
+            });
+            case API -> callApi(session);
+            case REVOKE -> revoke(session);
+        };
+        return request
+                .timeout(REQUEST_TIMEOUT)
+                .defaultIfEmpty(false)
+                .onErrorReturn(false)
+                .doOnNext(success -> {
+                    if (measured) {
+                        report.record(executed, System.nanoTime() - intendedStart, success);
+                    }
+                })
+                .then();
+    }
+
+    private Mono<Session> login(int slot) {
+        String username = slot % 2 == 0 ? "admin" : "user";
+        return authClient.post()
+                .uri(uri -> uri.path("/oauth/token")
+                        .queryParam("grant_type", "password")
+                        .queryParam("username", username)
+                        .queryParam("password", PASSWORDS.get(username))
+                        .build())
+                .retrieve()
+                .bodyToMono(TOKEN_RESPONSE)
+                .map(body -> new Session(username, body.get("access_token"), body.get("refresh_token")));
+    }
+
+    private Mono<Session> refresh(Session session) {
+        return authClient.post()
+                .uri(uri -> uri.path("/oauth/token")
+                        .queryParam("grant_type", "refresh_token")
+                        .queryParam("refresh_token", session.refreshToken())
+                        .build())
+                .retrieve()
+                .bodyToMono(TOKEN_RESPONSE)
+                .map(body -> new Session(session.username(), body.get("access_token"), body.get("refresh_token")));
+    }
+
+    private Mono<Boolean> callApi(Session session) {
+        List<String> endpoints = ENDPOINTS.get(session.username());
+        return resourceClient.get()
+                .uri(endpoints.get(ThreadLocalRandom.current().nextInt(endpoints.size())))
+                .headers(headers -> headers.setBearerAuth(session.accessToken()))
+                .retrieve()
+                .toBodilessEntity()
+                .map(response -> response.getStatusCode().is2xxSuccessful());
+    }
+
+    private Mono<Boolean> revoke(Session session) {
+        return authClient.post()
+                .uri(uri -> uri.path("/oauth/revoke").queryParam("token", session.accessToken()).build())
+                .retrieve()
+                .toBodilessEntity()
+                .map(response -> response.getStatusCode().is2xxSuccessful());
+    }
+
+    private record Session(String username, String accessToken, String refreshToken) {
+    }
+}
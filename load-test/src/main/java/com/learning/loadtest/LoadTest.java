@@ -0,0 +1,24 @@
+package com.learning.loadtest;
+
+/**
+ * Starts both services against embedded Redis and an in-memory H2, drives them at a fixed arrival
+ * rate and prints throughput and latency percentiles per operation.
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        try (Services services = Services.start(options.keyAlgorithm())) {
+            LatencyReport report = new LatencyReport();
+            LoadDriver driver = new LoadDriver(options, report, services.authBaseUrl(), services.resourceBaseUrl());
+            driver.populateSessions();
+
+            System.out.printf("Running %d req/s for %s (+%s warm-up), mix %s, %s keys%n",
+                    options.rate(), options.duration(), options.warmup(), options.mix(), options.keyAlgorithm());
+            driver.run(options.warmup(), options.duration());
+            report.print(options.duration(), System.out);
+        }
+        // Boot's non-daemon threads (schedulers, Netty) would otherwise keep the JVM alive
+        System.exit(0);
+    }
+}
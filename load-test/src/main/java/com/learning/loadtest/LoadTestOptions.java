@@ -0,0 +1,75 @@
+package com.learning.loadtest;
+
+import com.learning.keygenerator.KeyAlgorithm;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Command line options, given as {@code --name=value}.
+ *
+ * @param rate          requests started per second, whatever the response times (open model)
+ * @param warmup        run time before measurements start
+ * @param duration      measured run time
+ * @param mix           relative weight of each operation
+ * @param maxInFlight   requests allowed in flight; arrivals beyond it are dropped and reported
+ * @param sessions      logged-in sessions shared by the api, refresh and revoke operations
+ * @param keyAlgorithm  signing key generated for the run
+ */
+record LoadTestOptions(int rate, Duration warmup, Duration duration, Map<Operation, Integer> mix,
+                       int maxInFlight, int sessions, KeyAlgorithm keyAlgorithm) {
+
+    static LoadTestOptions parse(String[] args) {
+        int rate = 200;
+        Duration warmup = Duration.ofSeconds(10);
+        Duration duration = Duration.ofSeconds(30);
+        String mix = "api:80,login:10,refresh:5,revoke:5";
+        int maxInFlight = 2048;
+        int sessions = 256;
+        KeyAlgorithm keyAlgorithm = KeyAlgorithm.RS256;
+
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (name) {
+                case "rate" -> rate = Integer.parseInt(value);
+                case "warmup" -> warmup = parseDuration(value);
+                case "duration" -> duration = parseDuration(value);
+                case "mix" -> mix = value;
+                case "max-in-flight" -> maxInFlight = Integer.parseInt(value);
+                case "sessions" -> sessions = Integer.parseInt(value);
+                case "algorithm" -> keyAlgorithm = KeyAlgorithm.fromName(value);
+                default -> throw new IllegalArgumentException("Unknown option: --" + name);
+            }
+        }
+        return new LoadTestOptions(rate, warmup, duration, parseMix(mix), maxInFlight, sessions, keyAlgorithm);
+    }
+
+    /**
+     * Accepts {@code 500ms}, {@code 30s} or {@code 2m}.
+     */
+    private static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            default -> throw new IllegalArgumentException("Unsupported duration: " + value);
+        };
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            weights.put(Operation.fromName(parts[0]), Integer.parseInt(parts[1]));
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,19 @@
+package com.learning.loadtest;
+
+/**
+ * Requests the load test issues, following the flows in {@code postman_collection.json}.
+ */
+enum Operation {
+    /** {@code POST /oauth/token} with the password grant, as admin or user. */
+    LOGIN,
+    /** {@code POST /oauth/token} with the refresh_token grant of an existing session. */
+    REFRESH,
+    /** {@code GET} one of the {@code /api/*} endpoints the session's user may access. */
+    API,
+    /** {@code POST /oauth/revoke} of a session's access token; the session logs in again on its next operation. */
+    REVOKE;
+
+    static Operation fromName(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+}
@@ -0,0 +1,100 @@
+package com.learning.loadtest;
+
+import com.learning.auth.AuthApplication;
+import com.learning.keygenerator.KeyAlgorithm;
+import com.learning.keygenerator.PemExporter;
+import com.learning.resource.ResourceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+
+/**
+ * Embedded Redis plus auth-service and resource-service, each in its own application context in this JVM.
+ * <p>
+ * A fresh key pair is written to a temporary key directory that both services read, and resource-service
+ * also gets auth-service's JWKS endpoint, as in a real deployment.
+ */
+final class Services implements AutoCloseable {
+
+    private static final String KID = "loadtest";
+
+    private final RedisServer redisServer;
+    private final ConfigurableApplicationContext authContext;
+    private final ConfigurableApplicationContext resourceContext;
+
+    private Services(RedisServer redisServer, ConfigurableApplicationContext authContext,
+                     ConfigurableApplicationContext resourceContext) {
+        this.redisServer = redisServer;
+        this.authContext = authContext;
+        this.resourceContext = resourceContext;
+    }
+
+    static Services start(KeyAlgorithm keyAlgorithm) throws IOException {
+        int redisPort = freePort();
+        RedisServer redisServer = new RedisServer(redisPort);
+        redisServer.start();
+
+        Path keysDir = writeKeyDirectory(keyAlgorithm.generateKeyPair());
+
+        ConfigurableApplicationContext authContext = new SpringApplicationBuilder(AuthApplication.class)
+                .properties(
+                        "spring.config.name=loadtest-auth",
+                        "spring.data.redis.port=" + redisPort,
+                        "auth.keys.dir=" + keysDir)
+                .run();
+        int authPort = port(authContext);
+
+        ConfigurableApplicationContext resourceContext = new SpringApplicationBuilder(ResourceApplication.class)
+                .properties(
+                        "spring.config.name=loadtest-resource",
+                        "spring.data.redis.port=" + redisPort,
+                        "resource.keys.dir=" + keysDir,
+                        "resource.jwks.uri=http://localhost:" + authPort + "/.well-known/jwks.json")
+                .run();
+
+        return new Services(redisServer, authContext, resourceContext);
+    }
+
+    String authBaseUrl() {
+        return "http://localhost:" + port(authContext);
+    }
+
+    String resourceBaseUrl() {
+        return "http://localhost:" + port(resourceContext);
+    }
+
+    @Override
+    public void close() throws IOException {
+        resourceContext.close();
+        authContext.close();
+        redisServer.stop();
+    }
+
+    private static int port(ConfigurableApplicationContext context) {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    static Path writeKeyDirectory(KeyPair keyPair) throws IOException {
+        PemExporter pemExporter = new PemExporter();
+        Path dir = Files.createTempDirectory("loadtest-keys");
+        dir.toFile().deleteOnExit();
+        Path privateKey = Files.writeString(dir.resolve(KID + ".private.pem"), pemExporter.exportToPem(keyPair.getPrivate(), "PRIVATE KEY"));
+        Path publicKey = Files.writeString(dir.resolve(KID + ".public.pem"), pemExporter.exportToPem(keyPair.getPublic(), "PUBLIC KEY"));
+        privateKey.toFile().deleteOnExit();
+        publicKey.toFile().deleteOnExit();
+        return dir;
+    }
+
+    static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
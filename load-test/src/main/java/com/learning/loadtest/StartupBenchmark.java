@@ -0,0 +1,192 @@
+package com.learning.loadtest;
+
+import com.learning.keygenerator.KeyAlgorithm;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Time from launching a service JVM to its first successful request and to readiness, for the plain boot
+ * jar and for the fast-start layout ({@code build/fast-start}: extracted jar, CDS archive and, with
+ * {@code -PfastStart}, AOT-processed beans).
+ * <p>
+ * Each run starts a fresh process against a shared embedded Redis and a generated key directory, polls
+ * every 10 ms (resource-service: {@code GET /public/info}; auth-service: a password-grant
+ * {@code POST /oauth/token}) and {@code GET /actuator/health/readiness} on the management port, then stops
+ * the process. The first request can succeed while warm-up is still running; readiness only reports UP
+ * once warm-up has finished, which is when a load balancer would send traffic. Process output goes to
+ * {@code load-test/build/startup-benchmark/}.
+ * <p>
+ * Options: {@code --root=<repo dir>}, {@code --service=auth|resource|all} (default all),
+ * {@code --runs=<n>} (default 5).
+ */
+public class StartupBenchmark {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(60);
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(10);
+
+    private final Path root;
+    private final Path logDir;
+    private final Path keysDir;
+    private final int redisPort;
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(200))
+            .build();
+
+    private StartupBenchmark(Path root, Path keysDir, int redisPort) throws IOException {
+        this.root = root;
+        this.logDir = Files.createDirectories(root.resolve("load-test/build/startup-benchmark"));
+        this.keysDir = keysDir;
+        this.redisPort = redisPort;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path root = Paths.get(".");
+        String service = "all";
+        int runs = 5;
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (name) {
+                case "root" -> root = Paths.get(value);
+                case "service" -> service = value;
+                case "runs" -> runs = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown option: --" + name);
+            }
+        }
+
+        int redisPort = Services.freePort();
+        RedisServer redisServer = new RedisServer(redisPort);
+        redisServer.start();
+        try {
+            StartupBenchmark benchmark = new StartupBenchmark(root.toAbsolutePath().normalize(),
+                    Services.writeKeyDirectory(KeyAlgorithm.RS256.generateKeyPair()), redisPort);
+            System.out.printf("%-18s %-11s %5s %9s %9s %9s %9s %9s%n",
+                    "service", "variant", "runs", "min ms", "median ms", "max ms", "ready med", "ready max");
+            for (String name : service.equals("all") ? List.of("resource-service", "auth-service") : List.of(service + "-service")) {
+                benchmark.measure(name, "jar", runs);
+                benchmark.measure(name, "fast-start", runs);
+            }
+        } finally {
+            redisServer.stop();
+        }
+    }
+
+    private void measure(String service, String variant, int runs) throws Exception {
+        long[] firstRequest = new long[runs];
+        long[] ready = new long[runs];
+        for (int run = 0; run < runs; run++) {
+            Startup startup = timeStartup(service, variant, run);
+            firstRequest[run] = startup.firstRequestMillis();
+            ready[run] = startup.readyMillis();
+        }
+        Arrays.sort(firstRequest);
+        Arrays.sort(ready);
+        System.out.printf("%-18s %-11s %5d %9d %9d %9d %9d %9d%n", service, variant, runs,
+                firstRequest[0], firstRequest[runs / 2], firstRequest[runs - 1], ready[runs / 2], ready[runs - 1]);
+    }
+
+    private Startup timeStartup(String service, String variant, int run) throws Exception {
+        Path serviceDir = root.resolve(service);
+        int port = Services.freePort();
+        int managementPort = Services.freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        Path workingDir;
+        if (variant.equals("jar")) {
+            workingDir = serviceDir;
+            command.addAll(List.of("-jar", bootJar(serviceDir.resolve("build/libs")).toString()));
+        } else {
+            workingDir = serviceDir.resolve("build/fast-start");
+            if (!Files.exists(workingDir.resolve("jvm.options"))) {
+                throw new IllegalStateException("Run ./gradlew :" + service + ":fastStart first");
+            }
+            command.addAll(List.of("@jvm.options", "-jar", bootJar(workingDir).getFileName().toString()));
+        }
+        command.addAll(List.of(
+                "--server.port=" + port,
+                "--management.server.port=" + managementPort,
+                "--spring.data.redis.port=" + redisPort,
+                "--auth.keys.dir=" + keysDir,
+                "--resource.keys.dir=" + keysDir,
+                "--resource.jwks.uri="));
+
+        HttpRequest probe = service.startsWith("auth")
+                // AuthController binds the grant from query parameters (@RequestParam), not from a form body
+                ? HttpRequest.newBuilder(URI.create("http://localhost:" + port
+                                + "/oauth/token?grant_type=password&username=user&password=password"))
+                        .POST(HttpRequest.BodyPublishers.noBody())
+                        .build()
+                : HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/public/info")).GET().build();
+        HttpRequest readiness = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + managementPort + "/actuator/health/readiness")).GET().build();
+
+        Path log = logDir.resolve(service + "-" + variant + "-" + run + ".log");
+        long startedAt = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(workingDir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        long firstRequestMillis = -1;
+        long readyMillis = -1;
+        try {
+            while (System.nanoTime() - startedAt < STARTUP_TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(service + " exited with " + process.exitValue() + ", see " + log);
+                }
+                if (firstRequestMillis < 0 && succeeds(probe)) {
+                    firstRequestMillis = Duration.ofNanos(System.nanoTime() - startedAt).toMillis();
+                }
+                if (readyMillis < 0 && succeeds(readiness)) {
+                    readyMillis = Duration.ofNanos(System.nanoTime() - startedAt).toMillis();
+                }
+                if (firstRequestMillis >= 0 && readyMillis >= 0) {
+                    return new Startup(firstRequestMillis, readyMillis);
+                }
+                Thread.sleep(POLL_INTERVAL.toMillis());
+            }
+            throw new IllegalStateException(service + " was not ready within " + STARTUP_TIMEOUT + ", see " + log);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private boolean succeeds(HttpRequest request) throws InterruptedException {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() / 100 == 2;
+        } catch (IOException e) {
+            // Not listening yet
+            return false;
+        }
+    }
+
+    private static Path bootJar(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files
+                    .filter(file -> file.getFileName().toString().endsWith(".jar"))
+                    .filter(file -> !file.getFileName().toString().endsWith("-plain.jar"))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No boot jar in " + dir));
+        }
+    }
+
+    private record Startup(long firstRequestMillis, long readyMillis) {
+    }
+}
@@ -0,0 +1,90 @@
+package com.learning.resource.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded in-process cache of tokens recently confirmed as active in Redis.
+ * <p>
+ * Entries never outlive the token's {@code exp}, and are capped at {@code resource.near-cache.max-ttl}
+ * so a missed revocation message only stays visible for a short, bounded time.
+ */
+@Component
+public class ActiveTokenNearCache {
+
+    private final Cache<String, Instant> cache;
+    private final Duration maxTtl;
+
+    // Bumped on every invalidation so a Redis answer that raced with a revocation is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    public ActiveTokenNearCache(@Value("${resource.near-cache.maximum-size:100000}") long maximumSize,
+                                @Value("${resource.near-cache.max-ttl:30s}") Duration maxTtl) {
+        this.maxTtl = maxTtl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, Instant>() {
+                    @Override
+                    public long expireAfterCreate(String key, Instant expiresAt, long currentTime) {
+                        return ttlNanos(expiresAt);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Instant expiresAt, long currentTime, long currentDuration) {
+                        return ttlNanos(expiresAt);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Instant expiresAt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    public boolean isActive(String key) {
+        return cache.getIfPresent(key) != null;
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Caches a positive lookup, unless an invalidation happened since {@code observedGeneration} was read.
+     */
+    public void markActive(String key, Instant expiresAt, long observedGeneration) {
+        if (expiresAt == null || !expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        cache.put(key, expiresAt);
+        if (generation.get() != observedGeneration) {
+            cache.invalidate(key);
+        }
+    }
+
+    public void invalidate(String key) {
+        generation.incrementAndGet();
+        cache.invalidate(key);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private long ttlNanos(Instant expiresAt) {
+        Duration untilExpiry = Duration.between(Instant.now(), expiresAt);
+        if (untilExpiry.isNegative()) {
+            return 0;
+        }
+        return Math.min(untilExpiry.toNanos(), maxTtl.toNanos());
+    }
+}
@@ -0,0 +1,152 @@
+package com.learning.resource.security;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Verification keys fetched from auth-service's {@code /.well-known/jwks.json}, indexed by {@code kid}.
+ * <p>
+ * The set is refreshed every {@code resource.jwks.refresh-interval-ms} with a conditional request, so an
+ * unchanged set costs a 304. A token with an unknown {@code kid} triggers one refetch shared by every
+ * request waiting on it, at most once per {@code resource.jwks.min-refetch-interval}; other unknown kids
+ * in that window are rejected without a request to auth-service. Disabled when {@code resource.jwks.uri}
+ * is empty.
+ */
+@Slf4j
+@Component
+public class JwksKeyCache {
+
+    private final WebClient webClient;
+    private final String jwksUri;
+    private final long minRefetchIntervalNanos;
+    private final MeterRegistry meterRegistry;
+
+    private volatile Map<String, JWK> keysByKid = Map.of();
+    private volatile String etag;
+
+    private final Object refetchLock = new Object();
+    private Mono<Void> refetch;
+    private long lastRefetchNanos;
+
+    public JwksKeyCache(WebClient.Builder webClientBuilder,
+                        MeterRegistry meterRegistry,
+                        @Value("${resource.jwks.uri:}") String jwksUri,
+                        @Value("${resource.jwks.min-refetch-interval:10s}") Duration minRefetchInterval) {
+        this.webClient = webClientBuilder.build();
+        this.meterRegistry = meterRegistry;
+        this.jwksUri = jwksUri;
+        this.minRefetchIntervalNanos = minRefetchInterval.toNanos();
+    }
+
+    public boolean isEnabled() {
+        return !jwksUri.isBlank();
+    }
+
+    public Collection<JWK> keys() {
+        return keysByKid.values();
+    }
+
+    /**
+     * Emits the key for {@code kid}, refetching the set once if it is not known yet; empty if it still is not.
+     */
+    public Mono<JWK> findByKid(String kid) {
+        JWK key = keysByKid.get(kid);
+        if (key != null || !isEnabled()) {
+            return Mono.justOrEmpty(key);
+        }
+        return refetchForUnknownKid().then(Mono.fromSupplier(() -> keysByKid.get(kid)));
+    }
+
+    @Scheduled(fixedDelayString = "${resource.jwks.refresh-interval-ms:300000}")
+    public void refresh() {
+        if (isEnabled()) {
+            fetch().block(Duration.ofSeconds(10));
+        }
+    }
+
+    private Mono<Void> refetchForUnknownKid() {
+        synchronized (refetchLock) {
+            if (refetch != null) {
+                return refetch;
+            }
+            long now = System.nanoTime();
+            if (lastRefetchNanos != 0 && now - lastRefetchNanos < minRefetchIntervalNanos) {
+                meterRegistry.counter("tokens.jwks.fetches", "result", "throttled").increment();
+                return Mono.empty();
+            }
+            lastRefetchNanos = now;
+            refetch = fetch()
+                    .doFinally(signal -> {
+                        synchronized (refetchLock) {
+                            refetch = null;
+                        }
+                    })
+                    .cache();
+            return refetch;
+        }
+    }
+
+    private Mono<Void> fetch() {
+        String knownEtag = etag;
+        return webClient.get()
+                .uri(jwksUri)
+                .headers(headers -> {
+                    if (knownEtag != null) {
+                        headers.setIfNoneMatch(knownEtag);
+                    }
+                })
+                .exchangeToMono(response -> {
+                    if (response.statusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                        meterRegistry.counter("tokens.jwks.fetches", "result", "not_modified").increment();
+                        return response.releaseBody();
+                    }
+                    if (!response.statusCode().is2xxSuccessful()) {
+                        return response.<Void>createError();
+                    }
+                    String newEtag = response.headers().asHttpHeaders().getETag();
+                    return response.bodyToMono(String.class)
+                            .doOnNext(body -> apply(body, newEtag))
+                            .then();
+                })
+                .timeout(Duration.ofSeconds(5))
+                .onErrorResume(e -> {
+                    // Keep verifying with the keys we have; the next refresh tries again
+                    meterRegistry.counter("tokens.jwks.fetches", "result", "failed").increment();
+                    log.warn("Failed to fetch JWKS from {}", jwksUri, e);
+                    return Mono.empty();
+                });
+    }
+
+    private void apply(String body, String newEtag) {
+        JWKSet jwkSet;
+        try {
+            jwkSet = JWKSet.parse(body);
+        } catch (java.text.ParseException e) {
+            throw new IllegalStateException("Invalid JWKS from " + jwksUri, e);
+        }
+        Map<String, JWK> keys = new HashMap<>();
+        for (JWK jwk : jwkSet.getKeys()) {
+            if (jwk.getKeyID() != null && (jwk.getKeyUse() == null || KeyUse.SIGNATURE.equals(jwk.getKeyUse()))) {
+                keys.put(jwk.getKeyID(), jwk);
+            }
+        }
+        keysByKid = Map.copyOf(keys);
+        etag = newEtag;
+        meterRegistry.counter("tokens.jwks.fetches", "result", "updated").increment();
+        log.info("JWKS refreshed from {}: {}", jwksUri, keysByKid.keySet());
+    }
+}
@@ -0,0 +1,70 @@
+package com.learning.resource.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.proc.JWKSecurityContext;
+import com.nimbusds.jose.proc.JWSKeySelector;
+
+import java.security.Key;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Selects verification keys by {@code kid} and only when the key type matches the token's {@code alg},
+ * so a token cannot pick a weaker algorithm for a key than the one it was issued for.
+ */
+class KidJwsKeySelector implements JWSKeySelector<JWKSecurityContext> {
+
+    private final Set<JWSAlgorithm> allowedAlgorithms;
+
+    KidJwsKeySelector(Set<JWSAlgorithm> allowedAlgorithms) {
+        this.allowedAlgorithms = allowedAlgorithms;
+    }
+
+    @Override
+    public List<? extends Key> selectJWSKeys(JWSHeader header, JWKSecurityContext context) throws KeySourceException {
+        JWSAlgorithm algorithm = header.getAlgorithm();
+        if (!allowedAlgorithms.contains(algorithm)) {
+            return List.of();
+        }
+        List<Key> keys = new ArrayList<>();
+        for (JWK jwk : context.getKeys()) {
+            if (header.getKeyID() != null && !header.getKeyID().equals(jwk.getKeyID())) {
+                continue;
+            }
+            if (jwk.getAlgorithm() != null && !jwk.getAlgorithm().equals(algorithm)) {
+                continue;
+            }
+            if (!matches(jwk, algorithm)) {
+                continue;
+            }
+            try {
+                keys.add(VerificationKeys.toPublicKey(jwk));
+            } catch (JOSEException e) {
+                throw new KeySourceException("Unusable verification key " + jwk.getKeyID(), e);
+            }
+        }
+        return keys;
+    }
+
+    private static boolean matches(JWK jwk, JWSAlgorithm algorithm) {
+        if (JWSAlgorithm.Family.RSA.contains(algorithm)) {
+            return jwk instanceof RSAKey;
+        }
+        if (JWSAlgorithm.Family.EC.contains(algorithm)) {
+            return jwk instanceof ECKey ecKey && Curve.forJWSAlgorithm(algorithm).contains(ecKey.getCurve());
+        }
+        if (JWSAlgorithm.EdDSA.equals(algorithm)) {
+            return jwk instanceof OctetKeyPair okp && Curve.Ed25519.equals(okp.getCurve());
+        }
+        return false;
+    }
+}
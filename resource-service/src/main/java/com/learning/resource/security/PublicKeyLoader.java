@@ -4,30 +4,63 @@ import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Component;
 
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.KeyFactory;
-import java.security.interfaces.RSAPublicKey;
+import java.security.PublicKey;
+import java.security.spec.InvalidKeySpecException;
 import java.security.spec.X509EncodedKeySpec;
 import java.util.Base64;
 
 @Component
 public class PublicKeyLoader {
 
-    public RSAPublicKey loadPublicKey() {
+    // X.509 SubjectPublicKeyInfo carries the algorithm OID, so the first factory that accepts it is the right one
+    private static final String[] KEY_ALGORITHMS = {"RSA", "EC", "Ed25519"};
+
+    public boolean hasClasspathPublicKey() {
+        return new ClassPathResource("keys/public.pem").exists();
+    }
+
+    public PublicKey loadPublicKey() {
         try {
             ClassPathResource resource = new ClassPathResource("keys/public.pem");
             try (InputStream inputStream = resource.getInputStream()) {
-                String keyContent = new String(inputStream.readAllBytes())
-                        .replace("-----BEGIN PUBLIC KEY-----", "")
-                        .replace("-----END PUBLIC KEY-----", "")
-                        .replaceAll("\\s", "");
-
-                byte[] keyBytes = Base64.getDecoder().decode(keyContent);
-                X509EncodedKeySpec spec = new X509EncodedKeySpec(keyBytes);
-                KeyFactory kf = KeyFactory.getInstance("RSA");
-                return (RSAPublicKey) kf.generatePublic(spec);
+                return parsePublicKey(new String(inputStream.readAllBytes(), StandardCharsets.US_ASCII));
             }
         } catch (Exception e) {
             throw new RuntimeException("Failed to load public key", e);
         }
     }
+
+    public PublicKey loadPublicKey(Path path) {
+        try {
+            return parsePublicKey(Files.readString(path, StandardCharsets.US_ASCII));
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to load public key from " + path, e);
+        }
+    }
+
+    public PublicKey parsePublicKey(String pem) {
+        try {
+            String keyContent = pem
+                    .replace("-----BEGIN PUBLIC KEY-----", "")
+                    .replace("-----END PUBLIC KEY-----", "")
+                    .replaceAll("\\s", "");
+
+            byte[] keyBytes = Base64.getDecoder().decode(keyContent);
+            X509EncodedKeySpec spec = new X509EncodedKeySpec(keyBytes);
+            for (String algorithm : KEY_ALGORITHMS) {
+                try {
+                    return KeyFactory.getInstance(algorithm).generatePublic(spec);
+                } catch (InvalidKeySpecException e) {
+                    // Not this algorithm, try the next one
+                }
+            }
+            throw new IllegalArgumentException("Unsupported public key algorithm (expected RSA, EC or Ed25519)");
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to parse public key", e);
+        }
+    }
 }
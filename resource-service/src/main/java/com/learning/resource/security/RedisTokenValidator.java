@@ -1,25 +1,73 @@
 package com.learning.resource.security;
 
-import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import com.learning.tokenstore.ReactiveTimers;
+import com.learning.tokenstore.TokenKeyFormat;
+import com.learning.tokenstore.TokenKeys;
+import com.learning.tokenstore.TokenStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
 @Component
-public class RedisTokenValidator {
+@ConditionalOnProperty(name = "resource.token-validation.mode", havingValue = "whitelist", matchIfMissing = true)
+public class RedisTokenValidator implements TokenValidator {
 
-    private final ReactiveRedisTemplate<String, String> activeTokensCache;
+    private final TokenStore tokenStore;
 
-    public RedisTokenValidator(@Qualifier("activeTokensCache") ReactiveRedisTemplate<String, String> activeTokensCache) {
-        this.activeTokensCache = activeTokensCache;
+    private final ActiveTokenNearCache nearCache;
+
+    private final TokenKeyFormat keyFormat;
+
+    private final Timer lookupTime;
+
+    private final Counter nearCacheHits;
+
+    public RedisTokenValidator(TokenStore tokenStore,
+                               ActiveTokenNearCache nearCache,
+                               MeterRegistry meterRegistry,
+                               @Value("${tokens.key-format:jti}") TokenKeyFormat keyFormat) {
+        this.tokenStore = tokenStore;
+        this.nearCache = nearCache;
+        this.keyFormat = keyFormat;
+        this.lookupTime = Timer.builder("tokens.whitelist.lookup.duration")
+                .description("Token store whitelist lookups for tokens not in the near-cache")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.nearCacheHits = Counter.builder("tokens.whitelist.near.cache.hits")
+                .description("Whitelist checks answered by the near-cache")
+                .register(meterRegistry);
     }
 
-    public Mono<Boolean> isTokenInWhitelist(String token) {
-        return activeTokensCache.hasKey(token);
+    public Mono<Boolean> isTokenInWhitelist(Jwt jwt) {
+        String jti = jwt.getId();
+        return switch (keyFormat) {
+            case TOKEN -> tokenStore.exists(jwt.getTokenValue());
+            case JTI -> jti == null ? Mono.just(false) : tokenStore.exists(TokenKeys.forJti(jti));
+            case DUAL -> (jti == null ? Mono.just(false) : tokenStore.exists(TokenKeys.forJti(jti)))
+                    .flatMap(found -> found ? Mono.just(true) : tokenStore.exists(jwt.getTokenValue()));
+        };
     }
 
-    public Mono<Boolean> isTokenActive(String token) {
-        return isTokenInWhitelist(token)
-            .defaultIfEmpty(false); 
+    @Override
+    public Mono<Boolean> isTokenActive(Jwt jwt) {
+        // Revocations are published by jti, so that is what the near-cache is keyed by
+        String jti = jwt.getId();
+        if (jti != null && nearCache.isActive(jti)) {
+            nearCacheHits.increment();
+            return Mono.just(true);
+        }
+        long generation = nearCache.generation();
+        return ReactiveTimers.timed(lookupTime, isTokenInWhitelist(jwt))
+            .defaultIfEmpty(false)
+            .doOnNext(active -> {
+                if (active && jti != null) {
+                    nearCache.markActive(jti, jwt.getExpiresAt(), generation);
+                }
+            });
     }
 }
@@ -0,0 +1,174 @@
+package com.learning.resource.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Revocation-list alternative to {@link RedisTokenValidator}: tokens are accepted unless their
+ * {@code jti} is in the deny set auth-service keeps in Redis.
+ * <p>
+ * A Bloom filter of the deny set is rebuilt every {@code resource.revocation-filter.sync-interval-ms}
+ * and updated from the revocation channel in between, so only filter hits go to Redis. Unlike the
+ * whitelist this is fail-open: a token the filter has never heard of is accepted without a lookup.
+ * Until the first successful sync every token is checked against Redis.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "resource.token-validation.mode", havingValue = "revocation-list")
+public class RevocationListValidator implements TokenValidator {
+
+    private final ReactiveRedisTemplate<String, String> activeTokensCache;
+    private final ReactiveRedisMessageListenerContainer listenerContainer;
+    private final String revokedSet;
+    private final String revocationChannel;
+    private final long expectedInsertions;
+    private final double falsePositiveProbability;
+
+    private final Counter negatives;
+    private final Counter falsePositives;
+    private final Counter revoked;
+
+    private final Object filterLock = new Object();
+    private volatile RevocationBloomFilter filter;
+    private RevocationBloomFilter building;
+
+    private Disposable subscription;
+
+    public RevocationListValidator(@Qualifier("activeTokensCache") ReactiveRedisTemplate<String, String> activeTokensCache,
+                                   ReactiveRedisMessageListenerContainer listenerContainer,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${tokens.revoked-set:revoked-jtis}") String revokedSet,
+                                   @Value("${tokens.revocation-channel:token-revocations}") String revocationChannel,
+                                   @Value("${resource.revocation-filter.expected-insertions:100000}") long expectedInsertions,
+                                   @Value("${resource.revocation-filter.false-positive-probability:0.01}") double falsePositiveProbability) {
+        this.activeTokensCache = activeTokensCache;
+        this.listenerContainer = listenerContainer;
+        this.revokedSet = revokedSet;
+        this.revocationChannel = revocationChannel;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveProbability = falsePositiveProbability;
+
+        this.negatives = checks(meterRegistry, "negative");
+        this.falsePositives = checks(meterRegistry, "false_positive");
+        this.revoked = checks(meterRegistry, "revoked");
+        Gauge.builder("tokens.revocation.filter.false.positive.rate", this, RevocationListValidator::falsePositiveRate)
+                .description("Share of non-revoked tokens the filter sent to Redis")
+                .register(meterRegistry);
+        Gauge.builder("tokens.revocation.filter.size", this, v -> v.filter == null ? 0 : v.filter.sizeInBytes())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        subscription = listenerContainer.receive(ChannelTopic.of(revocationChannel))
+                .doOnError(e -> log.warn("Revocation subscription failed, resubscribing", e))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofMillis(200)).maxBackoff(Duration.ofSeconds(5)))
+                .subscribe(message -> add(message.getMessage()));
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    @Override
+    public Mono<Boolean> isTokenActive(Jwt jwt) {
+        String jti = jwt.getId();
+        if (jti == null) {
+            return Mono.just(false);
+        }
+        RevocationBloomFilter current = filter;
+        if (current != null && !current.mightContain(jti)) {
+            negatives.increment();
+            return Mono.just(true);
+        }
+        return activeTokensCache.opsForZSet().score(revokedSet, jti)
+                .map(score -> true)
+                .defaultIfEmpty(false)
+                .map(isRevoked -> {
+                    if (current != null) {
+                        (isRevoked ? revoked : falsePositives).increment();
+                    }
+                    return !isRevoked;
+                });
+    }
+
+    @Scheduled(fixedDelayString = "${resource.revocation-filter.sync-interval-ms:30000}")
+    public void sync() {
+        RevocationBloomFilter next;
+        synchronized (filterLock) {
+            next = RevocationBloomFilter.create(expectedInsertions, falsePositiveProbability);
+            // Revocations received while the snapshot is loading go into the new filter as well
+            building = next;
+        }
+        try {
+            double nowSeconds = System.currentTimeMillis() / 1000;
+            List<String> revokedJtis = activeTokensCache.opsForZSet()
+                    .rangeByScore(revokedSet, Range.rightUnbounded(Range.Bound.inclusive(nowSeconds)))
+                    .collectList()
+                    .block(Duration.ofSeconds(10));
+            if (revokedJtis != null && revokedJtis.size() > expectedInsertions) {
+                log.warn("Revocation set has {} entries, above the configured {} expected insertions; "
+                        + "false-positive rate will be higher", revokedJtis.size(), expectedInsertions);
+            }
+            if (revokedJtis != null) {
+                revokedJtis.forEach(next::add);
+            }
+            synchronized (filterLock) {
+                filter = next;
+                building = null;
+            }
+        } catch (RuntimeException e) {
+            synchronized (filterLock) {
+                building = null;
+            }
+            log.warn("Failed to sync revocation filter, keeping previous one", e);
+        }
+    }
+
+    private void add(String jti) {
+        synchronized (filterLock) {
+            if (filter != null) {
+                filter.add(jti);
+            }
+            if (building != null) {
+                building.add(jti);
+            }
+        }
+    }
+
+    private double falsePositiveRate() {
+        double fp = falsePositives.count();
+        double total = fp + negatives.count();
+        return total == 0 ? 0 : fp / total;
+    }
+
+    private static Counter checks(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("tokens.revocation.filter.checks")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,53 @@
+package com.learning.resource.security;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+
+/**
+ * Listens to the revocation channel published by auth-service and evicts revoked tokens from the
+ * {@link ActiveTokenNearCache}.
+ */
+@Slf4j
+@Component
+public class RevocationSubscriber {
+
+    private final ReactiveRedisMessageListenerContainer listenerContainer;
+    private final ActiveTokenNearCache nearCache;
+    private final String revocationChannel;
+
+    private Disposable subscription;
+
+    public RevocationSubscriber(ReactiveRedisMessageListenerContainer listenerContainer,
+                                ActiveTokenNearCache nearCache,
+                                @Value("${tokens.revocation-channel:token-revocations}") String revocationChannel) {
+        this.listenerContainer = listenerContainer;
+        this.nearCache = nearCache;
+        this.revocationChannel = revocationChannel;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        subscription = listenerContainer.receive(ChannelTopic.of(revocationChannel))
+                // Messages published while we were not subscribed are lost, so start from an empty cache
+                .doOnSubscribe(s -> nearCache.invalidateAll())
+                .doOnError(e -> log.warn("Revocation subscription failed, resubscribing", e))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofMillis(200)).maxBackoff(Duration.ofSeconds(5)))
+                .subscribe(message -> nearCache.invalidate(message.getMessage()));
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+}
@@ -1,12 +1,22 @@
 package com.learning.resource.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.learning.tokenstore.ReactiveTimers;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.web.server.ManagementPortType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.convert.converter.Converter;
+import org.springframework.core.env.Environment;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.core.OAuth2Error;
 import org.springframework.security.oauth2.jwt.Jwt;
@@ -18,68 +28,127 @@ import org.springframework.security.oauth2.server.resource.authentication.Reacti
 import org.springframework.security.web.server.SecurityWebFilterChain;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 @RequiredArgsConstructor
 @EnableWebFluxSecurity
 public class SecurityConfig {
 
-    private final PublicKeyLoader publicKeyLoader;
-
     @Bean
-    public SecurityWebFilterChain springSecurityFilterChain(ServerHttpSecurity http, ReactiveJwtDecoder jwtDecoder) {
+    public SecurityWebFilterChain springSecurityFilterChain(ServerHttpSecurity http,
+                                                           ReactiveJwtDecoder jwtDecoder,
+                                                           Converter<Jwt, Mono<AbstractAuthenticationToken>> jwtAuthenticationConverter,
+                                                           Environment environment) {
+        // Metrics are only open when actuator listens on its own port (management.server.port), kept off the public network
+        boolean separateManagementPort = ManagementPortType.get(environment) == ManagementPortType.DIFFERENT;
         return http
                 .csrf(ServerHttpSecurity.CsrfSpec::disable)
-                .authorizeExchange(exchanges -> exchanges
-                        .pathMatchers("/public/**").permitAll()
-                        .pathMatchers("/api/admin/**").hasRole("ADMIN")
-                        .pathMatchers("/api/user/**").hasRole("USER")
-                        .pathMatchers("/api/**").authenticated()
-                        .anyExchange().denyAll()
-                )
+                .authorizeExchange(exchanges -> {
+                    exchanges
+                            .pathMatchers("/public/**").permitAll()
+                            .pathMatchers("/actuator/health/**").permitAll();
+                    if (separateManagementPort) {
+                        exchanges.pathMatchers("/actuator/prometheus").permitAll();
+                    }
+                    exchanges
+                            .pathMatchers("/api/admin/**").hasRole("ADMIN")
+                            .pathMatchers("/api/user/**").hasRole("USER")
+                            .pathMatchers("/api/**").authenticated()
+                            .anyExchange().denyAll();
+                })
                 .oauth2ResourceServer(oauth2 -> oauth2
                         .jwt(jwt -> jwt
                                 .jwtDecoder(jwtDecoder)
-                                .jwtAuthenticationConverter(jwtAuthenticationConverter())
+                                .jwtAuthenticationConverter(jwtAuthenticationConverter)
                         )
                 )
                 .build();
     }
 
     @Bean
-    public ReactiveJwtDecoder jwtDecoder(RedisTokenValidator redisTokenValidator) {
-        NimbusReactiveJwtDecoder jwtDecoder = NimbusReactiveJwtDecoder.withPublicKey(publicKeyLoader.loadPublicKey()).build();
+    public ReactiveJwtDecoder jwtDecoder(TokenValidator tokenValidator,
+                                         VerificationKeys verificationKeys,
+                                         VerifiedTokenCache verifiedTokenCache,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${resource.keys.algorithms:RS256,ES256,EdDSA}") String algorithms) {
+        NimbusReactiveJwtDecoder jwtDecoder = SignatureDecoders.create(verificationKeys::keysFor,
+                SignatureDecoders.parseAlgorithms(algorithms));
+
+        Timer decodeTime = Timer.builder("tokens.decode.duration")
+                .description("Parsing and signature verification of tokens not in the verified-token cache")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Timer validationTime = Timer.builder("tokens.validation.duration")
+                .description("Whole decoder: cache lookup, verification and whitelist/revocation check")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Counter accepted = validations(meterRegistry, "accepted");
+        Counter rejected = validations(meterRegistry, "rejected");
+        Counter revoked = validations(meterRegistry, "revoked");
 
-        return token -> jwtDecoder.decode(token)
-                .flatMap(jwt -> redisTokenValidator.isTokenActive(jwt.getTokenValue())
-                        .flatMap(isActive -> {
-                            if (isActive) {
-                                return Mono.just(jwt);
-                            } else {
-                                return Mono.error(new JwtValidationException(
-                                        "Token not found in active sessions or has been revoked",
-                                        Collections.singleton(new OAuth2Error("invalid_token", "Token is not in the active whitelist", null))
-                                ));
-                            }
-                        })
-                );
+        return token -> {
+            // Repeat requests with the same token skip parsing and signature verification
+            VerifiedTokenCache.Digest digest = VerifiedTokenCache.digest(token);
+            Jwt cached = verifiedTokenCache.get(digest);
+            Mono<Jwt> verified = cached != null
+                    ? Mono.just(cached)
+                    : ReactiveTimers.timed(decodeTime, jwtDecoder.decode(token))
+                            .doOnError(e -> rejected.increment())
+                            .doOnNext(jwt -> verifiedTokenCache.put(digest, jwt));
+            return ReactiveTimers.timed(validationTime, verified
+                    .flatMap(jwt -> tokenValidator.isTokenActive(jwt)
+                            .flatMap(isActive -> {
+                                if (isActive) {
+                                    accepted.increment();
+                                    return Mono.just(jwt);
+                                } else {
+                                    revoked.increment();
+                                    verifiedTokenCache.invalidate(digest);
+                                    return Mono.error(new JwtValidationException(
+                                            "Token not found in active sessions or has been revoked",
+                                            Collections.singleton(new OAuth2Error("invalid_token", "Token is not in the active whitelist", null))
+                                    ));
+                                }
+                            })
+                    ));
+        };
     }
 
     @Bean
-    public Converter<Jwt, Mono<AbstractAuthenticationToken>> jwtAuthenticationConverter() {
+    public Converter<Jwt, Mono<AbstractAuthenticationToken>> jwtAuthenticationConverter(MeterRegistry meterRegistry) {
+        // Tokens share a handful of distinct role lists, so the authorities are built once per list
+        Cache<List<String>, Collection<GrantedAuthority>> authoritiesByRoles = Caffeine.newBuilder()
+                .maximumSize(1024)
+                .build();
+        Timer conversionTime = Timer.builder("tokens.authorities.duration")
+                .description("Mapping the roles claim to granted authorities")
+                .register(meterRegistry);
         JwtAuthenticationConverter jwtAuthenticationConverter = new JwtAuthenticationConverter();
         jwtAuthenticationConverter.setJwtGrantedAuthoritiesConverter(jwt -> {
-            List<String> roles = jwt.getClaimAsStringList("roles");
-            if (roles == null) {
-                return Collections.emptyList();
+            long startedAt = System.nanoTime();
+            try {
+                List<String> roles = jwt.getClaimAsStringList("roles");
+                if (roles == null) {
+                    return Collections.emptyList();
+                }
+                return authoritiesByRoles.get(roles, key -> key.stream()
+                        .map(role -> (GrantedAuthority) new SimpleGrantedAuthority("ROLE_" + role))
+                        .toList());
+            } finally {
+                conversionTime.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
             }
-            return roles.stream()
-                    .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
-                    .collect(Collectors.toList());
         });
         return new ReactiveJwtAuthenticationConverterAdapter(jwtAuthenticationConverter);
     }
+
+    private static Counter validations(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("tokens.validations")
+                .description("Bearer tokens by outcome: accepted, rejected (bad signature or claims) or revoked")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
 }
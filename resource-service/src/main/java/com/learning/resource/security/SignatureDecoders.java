@@ -0,0 +1,58 @@
+package com.learning.resource.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.factories.DefaultJWSVerifierFactory;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jwt.SignedJWT;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import reactor.core.publisher.Flux;
+
+import java.security.Key;
+import java.security.PublicKey;
+import java.security.interfaces.EdECPublicKey;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Builds the signature-verifying part of the {@code jwtDecoder}: RS256, ES256 and EdDSA tokens, with
+ * the key chosen by {@code kid}.
+ */
+public final class SignatureDecoders {
+
+    private SignatureDecoders() {
+    }
+
+    public static NimbusReactiveJwtDecoder create(Function<SignedJWT, Flux<JWK>> keySource,
+                                                  Set<JWSAlgorithm> allowedAlgorithms) {
+        return NimbusReactiveJwtDecoder.withJwkSource(keySource)
+                .jwtProcessorCustomizer(processor -> {
+                    processor.setJWSKeySelector(new KidJwsKeySelector(allowedAlgorithms));
+                    processor.setJWSVerifierFactory(new VerifierFactory());
+                })
+                .build();
+    }
+
+    public static Set<JWSAlgorithm> parseAlgorithms(String algorithms) {
+        return Arrays.stream(algorithms.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .map(JWSAlgorithm::parse)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    private static final class VerifierFactory extends DefaultJWSVerifierFactory {
+
+        @Override
+        public JWSVerifier createJWSVerifier(JWSHeader header, Key key) throws JOSEException {
+            if (JWSAlgorithm.EdDSA.equals(header.getAlgorithm()) && key instanceof EdECPublicKey) {
+                return new Ed25519JwsVerifier((PublicKey) key);
+            }
+            return super.createJWSVerifier(header, key);
+        }
+    }
+}
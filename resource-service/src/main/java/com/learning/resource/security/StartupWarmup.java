@@ -0,0 +1,139 @@
+package com.learning.resource.security;
+
+import com.learning.tokenstore.TokenStore;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWK;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Set;
+
+/**
+ * Exercises the verification path once before the service reports ready.
+ * <p>
+ * Runners complete before Spring Boot publishes {@code ReadinessState.ACCEPTING_TRAFFIC}, so
+ * {@code /actuator/health/readiness} stays down until the JWKS has been fetched, tokens of every accepted
+ * algorithm have been verified and converted to authorities (loading the JCA providers and Nimbus, and
+ * JIT-compiling the hot paths), and the Redis connections are open. The tokens are signed with throwaway
+ * keys and verified by a separate decoder, so the verified-token cache and the whitelist never see them.
+ * Failures are logged and do not stop startup.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "resource.warm-up.enabled", havingValue = "true", matchIfMissing = true)
+public class StartupWarmup implements ApplicationRunner {
+
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+    private static final String WARM_UP_KID = "warm-up";
+
+    private final JwksKeyCache jwksKeyCache;
+    private final Converter<Jwt, Mono<AbstractAuthenticationToken>> jwtAuthenticationConverter;
+    private final TokenStore tokenStore;
+    private final ReactiveRedisTemplate<String, String> activeTokensCache;
+    private final Set<JWSAlgorithm> algorithms;
+    private final int iterations;
+    private final Duration timeout;
+
+    public StartupWarmup(JwksKeyCache jwksKeyCache,
+                         Converter<Jwt, Mono<AbstractAuthenticationToken>> jwtAuthenticationConverter,
+                         TokenStore tokenStore,
+                         @Qualifier("activeTokensCache") ReactiveRedisTemplate<String, String> activeTokensCache,
+                         @Value("${resource.keys.algorithms:RS256,ES256,EdDSA}") String algorithms,
+                         @Value("${resource.warm-up.iterations:200}") int iterations,
+                         @Value("${resource.warm-up.timeout:10s}") Duration timeout) {
+        this.jwksKeyCache = jwksKeyCache;
+        this.jwtAuthenticationConverter = jwtAuthenticationConverter;
+        this.tokenStore = tokenStore;
+        this.activeTokensCache = activeTokensCache;
+        this.algorithms = SignatureDecoders.parseAlgorithms(algorithms);
+        this.iterations = iterations;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long startedAt = System.nanoTime();
+        // Blocks until the set is fetched (or the fetch fails), so the first real token finds its kid
+        jwksKeyCache.refresh();
+        for (JWSAlgorithm algorithm : algorithms) {
+            try {
+                warmUpVerification(algorithm);
+            } catch (RuntimeException | GeneralSecurityException e) {
+                log.warn("Verification warm-up for {} failed", algorithm, e);
+            }
+        }
+        try {
+            // Nothing is written: the probe key never exists
+            Mono.when(tokenStore.exists("warm-up:probe"),
+                            activeTokensCache.execute(connection -> connection.ping()))
+                    .block(timeout);
+        } catch (RuntimeException e) {
+            log.warn("Redis warm-up failed, connections will be opened on first use", e);
+        }
+        log.info("Warm-up finished in {} ms", Duration.ofNanos(System.nanoTime() - startedAt).toMillis());
+    }
+
+    private void warmUpVerification(JWSAlgorithm algorithm) throws GeneralSecurityException {
+        KeyPair keyPair = keyPairFor(algorithm);
+        JWK jwk = VerificationKeys.toJwk(WARM_UP_KID, keyPair.getPublic());
+        NimbusReactiveJwtDecoder decoder = SignatureDecoders.create(jwt -> Flux.just(jwk), Set.of(algorithm));
+        String token = sign(algorithm, keyPair);
+        Flux.range(0, iterations)
+                .concatMap(i -> decoder.decode(token).flatMap(jwtAuthenticationConverter::convert))
+                .then()
+                .block(timeout);
+    }
+
+    private static KeyPair keyPairFor(JWSAlgorithm algorithm) throws GeneralSecurityException {
+        if (JWSAlgorithm.ES256.equals(algorithm)) {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            return generator.generateKeyPair();
+        }
+        if (JWSAlgorithm.EdDSA.equals(algorithm)) {
+            return KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        }
+        if (JWSAlgorithm.RS256.equals(algorithm)) {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            return generator.generateKeyPair();
+        }
+        throw new IllegalArgumentException("No warm-up key for " + algorithm);
+    }
+
+    private static String sign(JWSAlgorithm algorithm, KeyPair keyPair) throws GeneralSecurityException {
+        long exp = System.currentTimeMillis() / 1000 + 3600;
+        String header = "{\"kid\":\"" + WARM_UP_KID + "\",\"typ\":\"JWT\",\"alg\":\"" + algorithm.getName() + "\"}";
+        String claims = "{\"sub\":\"warm-up\",\"exp\":" + exp + ",\"roles\":[\"USER\"]}";
+        String signingInput = BASE64URL.encodeToString(header.getBytes(StandardCharsets.UTF_8))
+                + "." + BASE64URL.encodeToString(claims.getBytes(StandardCharsets.UTF_8));
+
+        String jcaAlgorithm = JWSAlgorithm.ES256.equals(algorithm) ? "SHA256withECDSAinP1363Format"
+                : JWSAlgorithm.EdDSA.equals(algorithm) ? "Ed25519"
+                : "SHA256withRSA";
+        Signature signature = Signature.getInstance(jcaAlgorithm);
+        signature.initSign(keyPair.getPrivate());
+        signature.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+        return signingInput + "." + BASE64URL.encodeToString(signature.sign());
+    }
+}
@@ -0,0 +1,13 @@
+package com.learning.resource.security;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import reactor.core.publisher.Mono;
+
+/**
+ * Decides whether a signature-verified token is still usable. Selected with
+ * {@code resource.token-validation.mode}: {@code whitelist} (default) or {@code revocation-list}.
+ */
+public interface TokenValidator {
+
+    Mono<Boolean> isTokenActive(Jwt jwt);
+}
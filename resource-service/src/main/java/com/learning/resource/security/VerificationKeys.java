@@ -0,0 +1,137 @@
+package com.learning.resource.security;
+
+import com.learning.jwk.PublicJwk;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jwt.SignedJWT;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Public keys accepted for signature verification, indexed by {@code kid}.
+ * <p>
+ * The classpath {@code keys/public.pem} (if present) is registered under {@code resource.keys.default-kid},
+ * plus every {@code <kid>.public.pem} in {@code resource.keys.dir} when that is set. Kids not found locally
+ * are looked up in the {@link JwksKeyCache}.
+ */
+@Slf4j
+@Component
+public class VerificationKeys {
+
+    static final String PUBLIC_KEY_SUFFIX = ".public.pem";
+
+    private final PublicKeyLoader publicKeyLoader;
+    private final JwksKeyCache jwksKeyCache;
+    private final String keysDir;
+    private final String defaultKid;
+
+    private volatile Map<String, JWK> keysByKid = Map.of();
+
+    public VerificationKeys(PublicKeyLoader publicKeyLoader,
+                            JwksKeyCache jwksKeyCache,
+                            @Value("${resource.keys.dir:}") String keysDir,
+                            @Value("${resource.keys.default-kid:default}") String defaultKid) {
+        this.publicKeyLoader = publicKeyLoader;
+        this.jwksKeyCache = jwksKeyCache;
+        this.keysDir = keysDir;
+        this.defaultKid = defaultKid;
+    }
+
+    @PostConstruct
+    public void load() {
+        Map<String, JWK> keys = new HashMap<>();
+        if (publicKeyLoader.hasClasspathPublicKey()) {
+            keys.put(defaultKid, toJwk(defaultKid, publicKeyLoader.loadPublicKey()));
+        } else if (keysDir.isBlank() && !jwksKeyCache.isEnabled()) {
+            throw new IllegalStateException("No verification keys: add keys/public.pem, resource.keys.dir or resource.jwks.uri");
+        }
+        if (!keysDir.isBlank()) {
+            try (Stream<Path> files = Files.list(Paths.get(keysDir))) {
+                for (Path file : files.filter(f -> f.getFileName().toString().endsWith(PUBLIC_KEY_SUFFIX)).toList()) {
+                    String fileName = file.getFileName().toString();
+                    String kid = fileName.substring(0, fileName.length() - PUBLIC_KEY_SUFFIX.length());
+                    keys.put(kid, toJwk(kid, publicKeyLoader.loadPublicKey(file)));
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to list key directory " + keysDir, e);
+            }
+        }
+        keysByKid = Map.copyOf(keys);
+        log.info("Verification keys loaded: {}", keysByKid.keySet());
+    }
+
+    /**
+     * Candidate keys for a token: the one named by its {@code kid}, or all of them for tokens issued
+     * before kids were stamped.
+     */
+    public Flux<JWK> keysFor(SignedJWT jwt) {
+        String kid = jwt.getHeader().getKeyID();
+        if (kid == null) {
+            return Flux.fromIterable(keys());
+        }
+        JWK key = keysByKid.get(kid);
+        return key == null ? jwksKeyCache.findByKid(kid).flux() : Flux.just(key);
+    }
+
+    public List<JWK> keys() {
+        List<JWK> keys = new ArrayList<>(keysByKid.values());
+        keys.addAll(jwksKeyCache.keys());
+        return keys;
+    }
+
+    /**
+     * The JWK of a local public key, encoded like the JWKS auth-service publishes.
+     */
+    public static JWK toJwk(String kid, PublicKey publicKey) {
+        Map<String, Object> jwk = new LinkedHashMap<>(PublicJwk.members(publicKey));
+        jwk.put("use", "sig");
+        jwk.put("kid", kid);
+        try {
+            return JWK.parse(jwk);
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("Failed to build JWK for " + kid, e);
+        }
+    }
+
+    /**
+     * Converts a JWK back to a JCA key. Nimbus cannot export Ed25519 keys itself, so those are rebuilt
+     * from their raw bytes.
+     */
+    public static PublicKey toPublicKey(JWK jwk) throws JOSEException {
+        if (jwk instanceof RSAKey rsaKey) {
+            return rsaKey.toRSAPublicKey();
+        }
+        if (jwk instanceof ECKey ecKey) {
+            return ecKey.toECPublicKey();
+        }
+        if (jwk instanceof OctetKeyPair okp && Curve.Ed25519.equals(okp.getCurve())) {
+            try {
+                return PublicJwk.ed25519(okp.getDecodedX());
+            } catch (GeneralSecurityException e) {
+                throw new JOSEException("Invalid Ed25519 key " + jwk.getKeyID(), e);
+            }
+        }
+        throw new JOSEException("Unsupported JWK type " + jwk.getKeyType() + " for " + jwk.getKeyID());
+    }
+}
@@ -0,0 +1,103 @@
+package com.learning.resource.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Bounded cache of bearer tokens whose signature and claims have already been verified, keyed by the
+ * SHA-256 of the raw token so lookups hash and compare 32 bytes instead of the whole token string.
+ * <p>
+ * The cached {@link Jwt} still carries the raw token ({@link Jwt#getTokenValue()}), which becomes the
+ * credentials of the authentication, so live tokens are held in memory for as long as their entry is.
+ * <p>
+ * Entries expire at the token's {@code exp}, capped at {@code resource.verified-token-cache.max-ttl} so a
+ * key dropped from the JWKS stops being trusted soon after. A hit only skips parsing and signature
+ * verification: the {@link TokenValidator} still runs, and a token it rejects is evicted here as well.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final Cache<Digest, Jwt> cache;
+    private final Duration maxTtl;
+
+    public VerifiedTokenCache(MeterRegistry meterRegistry,
+                              @Value("${resource.verified-token-cache.maximum-size:100000}") long maximumSize,
+                              @Value("${resource.verified-token-cache.max-ttl:5m}") Duration maxTtl) {
+        this.maxTtl = maxTtl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<Digest, Jwt>() {
+                    @Override
+                    public long expireAfterCreate(Digest key, Jwt jwt, long currentTime) {
+                        return ttlNanos(jwt.getExpiresAt());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Digest key, Jwt jwt, long currentTime, long currentDuration) {
+                        return ttlNanos(jwt.getExpiresAt());
+                    }
+
+                    @Override
+                    public long expireAfterRead(Digest key, Jwt jwt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "verified-tokens");
+    }
+
+    public Jwt get(Digest key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(Digest key, Jwt jwt) {
+        if (jwt.getExpiresAt() != null && jwt.getExpiresAt().isAfter(Instant.now())) {
+            cache.put(key, jwt);
+        }
+    }
+
+    public void invalidate(Digest key) {
+        cache.invalidate(key);
+    }
+
+    public static Digest digest(String token) {
+        try {
+            ByteBuffer hash = ByteBuffer.wrap(MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII)));
+            return new Digest(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Failed to hash token", e);
+        }
+    }
+
+    private long ttlNanos(Instant expiresAt) {
+        if (expiresAt == null) {
+            return 0;
+        }
+        Duration untilExpiry = Duration.between(Instant.now(), expiresAt);
+        if (untilExpiry.isNegative()) {
+            return 0;
+        }
+        return Math.min(untilExpiry.toNanos(), maxTtl.toNanos());
+    }
+
+    /**
+     * SHA-256 of a token as four longs: cheap to hash and compare as a cache key.
+     */
+    public record Digest(long h0, long h1, long h2, long h3) {
+    }
+}
@@ -0,0 +1,103 @@
+package com.learning.resource.security;
+
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwksKeyCacheTest {
+
+    private static final String JWKS_URI = "http://auth-service/.well-known/jwks.json";
+    private static final String ETAG = "\"v1\"";
+
+    private final List<ClientRequest> requests = new CopyOnWriteArrayList<>();
+
+    @Test
+    void concurrentLookupsOfAnUnknownKidShareOneFetch() throws Exception {
+        JWK key = publicKey("k1");
+        // Slow enough that every lookup arrives while the fetch is still in flight
+        JwksKeyCache cache = cache(Duration.ofSeconds(10),
+                request -> Mono.delay(Duration.ofMillis(200)).map(tick -> jwks(key)));
+
+        List<JWK> found = Flux.range(0, 32)
+                .parallel()
+                .runOn(Schedulers.parallel())
+                .flatMap(i -> cache.findByKid("k1"))
+                .sequential()
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertEquals(32, found.size());
+        found.forEach(jwk -> assertEquals("k1", jwk.getKeyID()));
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    void anotherUnknownKidWithinTheMinimumIntervalIsNotFetched() throws Exception {
+        JWK key = publicKey("k1");
+        JwksKeyCache cache = cache(Duration.ofSeconds(10), request -> Mono.just(jwks(key)));
+
+        assertEquals("k1", cache.findByKid("k1").block().getKeyID());
+        assertNull(cache.findByKid("k2").block());
+        assertNull(cache.findByKid("k3").block());
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    void refreshIsConditionalAndNotModifiedKeepsTheKeys() throws Exception {
+        JWK key = publicKey("k1");
+        JwksKeyCache cache = cache(Duration.ofSeconds(10), request -> Mono.just(
+                request.headers().getIfNoneMatch().contains(ETAG)
+                        ? ClientResponse.create(HttpStatus.NOT_MODIFIED).build()
+                        : jwks(key)));
+
+        cache.refresh();
+        cache.refresh();
+
+        assertEquals(2, requests.size());
+        assertTrue(requests.get(0).headers().getIfNoneMatch().isEmpty());
+        assertEquals(List.of(ETAG), requests.get(1).headers().getIfNoneMatch());
+        assertEquals(List.of("k1"), cache.keys().stream().map(JWK::getKeyID).toList());
+    }
+
+    private JwksKeyCache cache(Duration minRefetchInterval, Function<ClientRequest, Mono<ClientResponse>> server) {
+        WebClient.Builder webClient = WebClient.builder().exchangeFunction(request -> {
+            requests.add(request);
+            return server.apply(request);
+        });
+        return new JwksKeyCache(webClient, new SimpleMeterRegistry(), JWKS_URI, minRefetchInterval);
+    }
+
+    private static ClientResponse jwks(JWK key) {
+        return ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.ETAG, ETAG)
+                .body(new JWKSet(key).toString())
+                .build();
+    }
+
+    private static JWK publicKey(String kid) throws Exception {
+        return new ECKeyGenerator(Curve.P_256).keyID(kid).keyUse(KeyUse.SIGNATURE).generate().toPublicJWK();
+    }
+}
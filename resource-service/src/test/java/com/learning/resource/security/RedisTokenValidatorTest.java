@@ -0,0 +1,117 @@
+package com.learning.resource.security;
+
+import com.learning.resource.config.RedisConfig;
+import com.learning.tokenstore.RedisTokenStore;
+import com.learning.tokenstore.TokenKeyFormat;
+import com.learning.tokenstore.TokenKeys;
+import com.learning.tokenstore.TokenStoreConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.security.oauth2.jwt.Jwt;
+import redis.embedded.RedisServer;
+
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RedisTokenValidatorTest {
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+    private static ReactiveRedisTemplate<String, String> activeTokensCache;
+    private static RedisTokenStore tokenStore;
+    private static ReactiveRedisMessageListenerContainer listenerContainer;
+
+    @BeforeAll
+    static void startRedis() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+
+        connectionFactory = new LettuceConnectionFactory("localhost", port);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+
+        activeTokensCache = new TokenStoreConfiguration().activeTokensCache(connectionFactory);
+        tokenStore = new RedisTokenStore(activeTokensCache);
+        listenerContainer = new RedisConfig().revocationListenerContainer(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() throws Exception {
+        listenerContainer.destroy();
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @Test
+    void servesRepeatLookupsFromNearCacheUntilRevocationIsPublished() throws Exception {
+        ActiveTokenNearCache nearCache = new ActiveTokenNearCache(1000, Duration.ofMinutes(5));
+        RedisTokenValidator validator = new RedisTokenValidator(tokenStore, nearCache, new SimpleMeterRegistry(), TokenKeyFormat.JTI);
+        RevocationSubscriber subscriber = new RevocationSubscriber(listenerContainer, nearCache, "token-revocations");
+        subscriber.subscribe();
+        try {
+            String jti = UUID.randomUUID().toString();
+            Jwt jwt = jwt(jti);
+            activeTokensCache.opsForValue().set(TokenKeys.forJti(jti), "user").block();
+            assertTrue(validator.isTokenActive(jwt).block());
+
+            // Deleted behind the cache's back: still served locally
+            activeTokensCache.delete(TokenKeys.forJti(jti)).block();
+            assertTrue(validator.isTokenActive(jwt).block());
+
+            // Republish until the subscription is live and the entry is gone
+            long deadline = System.currentTimeMillis() + 5000;
+            while (nearCache.isActive(jti) && System.currentTimeMillis() < deadline) {
+                activeTokensCache.convertAndSend("token-revocations", jti).block();
+                Thread.sleep(20);
+            }
+            assertFalse(validator.isTokenActive(jwt).block());
+        } finally {
+            subscriber.unsubscribe();
+        }
+    }
+
+    @Test
+    void doesNotCacheUnknownTokens() {
+        ActiveTokenNearCache nearCache = new ActiveTokenNearCache(1000, Duration.ofMinutes(5));
+        RedisTokenValidator validator = new RedisTokenValidator(tokenStore, nearCache, new SimpleMeterRegistry(), TokenKeyFormat.JTI);
+
+        String jti = UUID.randomUUID().toString();
+        assertFalse(validator.isTokenActive(jwt(jti)).block());
+        assertFalse(nearCache.isActive(jti));
+    }
+
+    @Test
+    void dualModeAcceptsLegacyTokenKeys() {
+        ActiveTokenNearCache nearCache = new ActiveTokenNearCache(1000, Duration.ofMinutes(5));
+        RedisTokenValidator validator = new RedisTokenValidator(tokenStore, nearCache, new SimpleMeterRegistry(), TokenKeyFormat.DUAL);
+        Jwt jwt = jwt(UUID.randomUUID().toString());
+        activeTokensCache.opsForValue().set(jwt.getTokenValue(), "user").block();
+
+        assertTrue(validator.isTokenActive(jwt).block());
+    }
+
+    private static Jwt jwt(String jti) {
+        Instant now = Instant.now();
+        return Jwt.withTokenValue("header." + jti + ".signature")
+                .header("alg", "RS256")
+                .jti(jti)
+                .subject("user")
+                .issuedAt(now)
+                .expiresAt(now.plus(Duration.ofHours(1)))
+                .build();
+    }
+}
@@ -0,0 +1,96 @@
+package com.learning.tokenstore;
+
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TokenStore} in a {@link ConcurrentHashMap}, for tests, benchmarks and single-node setups where
+ * issuer and validator share the instance.
+ * <p>
+ * Expired entries are hidden on read and removed by a background sweep every {@code sweepIntervalMillis}.
+ * All calls complete synchronously on the caller's thread.
+ */
+public class InMemoryTokenStore implements TokenStore {
+
+    private final ConcurrentHashMap<String, StoredValue> entries = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService sweeper;
+
+    public InMemoryTokenStore(long sweepIntervalMillis) {
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-store-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweep, sweepIntervalMillis, sweepIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Mono<Void> putAll(List<Entry> batch) {
+        return Mono.fromRunnable(() -> {
+            long now = System.nanoTime();
+            for (Entry entry : batch) {
+                entries.put(entry.key(), new StoredValue(entry.value(), now + entry.ttl().toNanos()));
+            }
+        });
+    }
+
+    @Override
+    public Mono<Boolean> exists(String key) {
+        return Mono.fromSupplier(() -> live(key) != null);
+    }
+
+    @Override
+    public Mono<List<String>> getAll(List<String> keys) {
+        return Mono.fromSupplier(() -> {
+            List<String> values = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                values.add(live(key));
+            }
+            return values;
+        });
+    }
+
+    @Override
+    public Mono<Long> delete(Collection<String> keys) {
+        return Mono.fromSupplier(() -> {
+            long now = System.nanoTime();
+            long deleted = 0;
+            for (String key : keys) {
+                StoredValue removed = entries.remove(key);
+                if (removed != null && removed.isLive(now)) {
+                    deleted++;
+                }
+            }
+            return deleted;
+        });
+    }
+
+    @Override
+    public void close() {
+        sweeper.shutdownNow();
+    }
+
+    private String live(String key) {
+        StoredValue stored = entries.get(key);
+        return stored != null && stored.isLive(System.nanoTime()) ? stored.value() : null;
+    }
+
+    private void sweep() {
+        long now = System.nanoTime();
+        entries.values().removeIf(stored -> !stored.isLive(now));
+    }
+
+    private record StoredValue(String value, long expiresAtNanos) {
+
+        boolean isLive(long now) {
+            return now - expiresAtNanos < 0;
+        }
+    }
+}
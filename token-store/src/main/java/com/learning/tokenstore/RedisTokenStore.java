@@ -0,0 +1,108 @@
+package com.learning.tokenstore;
+
+import io.lettuce.core.RedisURI;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.ReactiveStringCommands.SetCommand;
+import org.springframework.data.redis.connection.RedisPassword;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * {@link TokenStore} on one Redis instance. Batch writes go out as one pipelined stream of SETs and batch
+ * reads as a single MGET.
+ */
+public class RedisTokenStore implements TokenStore {
+
+    private final ReactiveRedisTemplate<String, String> template;
+    private final LettuceConnectionFactory ownedConnectionFactory;
+
+    public RedisTokenStore(ReactiveRedisTemplate<String, String> template) {
+        this(template, null);
+    }
+
+    private RedisTokenStore(ReactiveRedisTemplate<String, String> template, LettuceConnectionFactory ownedConnectionFactory) {
+        this.template = template;
+        this.ownedConnectionFactory = ownedConnectionFactory;
+    }
+
+    /**
+     * Opens a dedicated connection to {@code redisUri}, closed together with the store. The URI follows the
+     * Lettuce syntax ({@code redis://[[user:]password@]host[:port][/database]}, {@code rediss://} for TLS).
+     */
+    public static RedisTokenStore connect(RedisURI redisUri) {
+        RedisStandaloneConfiguration server = new RedisStandaloneConfiguration(redisUri.getHost(), redisUri.getPort());
+        server.setDatabase(redisUri.getDatabase());
+        server.setUsername(redisUri.getUsername());
+        server.setPassword(RedisPassword.of(redisUri.getPassword()));
+        LettuceClientConfiguration.LettuceClientConfigurationBuilder client = LettuceClientConfiguration.builder();
+        if (redisUri.isSsl()) {
+            LettuceClientConfiguration.LettuceSslClientConfigurationBuilder ssl = client.useSsl();
+            if (!redisUri.isVerifyPeer()) {
+                ssl.disablePeerVerification();
+            }
+            if (redisUri.isStartTls()) {
+                ssl.startTls();
+            }
+        }
+        LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(server, client.build());
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        return new RedisTokenStore(stringTemplate(connectionFactory), connectionFactory);
+    }
+
+    public static ReactiveRedisTemplate<String, String> stringTemplate(ReactiveRedisConnectionFactory factory) {
+        StringRedisSerializer serializer = new StringRedisSerializer();
+        RedisSerializationContext<String, String> context = RedisSerializationContext
+                .<String, String>newSerializationContext(serializer)
+                .value(serializer)
+                .build();
+        return new ReactiveRedisTemplate<>(factory, context);
+    }
+
+    @Override
+    public Mono<Void> putAll(List<Entry> entries) {
+        SerializationPair<String> keySerializer = template.getSerializationContext().getKeySerializationPair();
+        SerializationPair<String> valueSerializer = template.getSerializationContext().getValueSerializationPair();
+        Flux<SetCommand> commands = Flux.fromIterable(entries)
+                .map(entry -> SetCommand.set(keySerializer.write(entry.key()))
+                        .value(valueSerializer.write(entry.value()))
+                        .expiring(Expiration.from(entry.ttl())));
+        return template.execute(connection -> connection.stringCommands().set(commands)).then();
+    }
+
+    @Override
+    public Mono<Boolean> exists(String key) {
+        return template.hasKey(key);
+    }
+
+    @Override
+    public Mono<List<String>> getAll(List<String> keys) {
+        return template.opsForValue().multiGet(keys);
+    }
+
+    @Override
+    public Mono<Long> delete(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return template.delete(keys.toArray(String[]::new));
+    }
+
+    @Override
+    public void close() {
+        if (ownedConnectionFactory != null) {
+            ownedConnectionFactory.destroy();
+        }
+    }
+}
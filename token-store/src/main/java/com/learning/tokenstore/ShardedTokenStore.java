@@ -0,0 +1,157 @@
+package com.learning.tokenstore;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spreads keys over several {@link TokenStore}s with client-side consistent hashing.
+ * <p>
+ * Each shard owns {@code virtualNodes} points on a 64-bit ring, placed by hashing the shard's name, and a key
+ * belongs to the first point at or after its hash. Adding a shard therefore only moves about {@code 1/n} of
+ * the keys, and listing the same shards in another order moves none. Batch calls are split per shard and
+ * sent to all of them concurrently: one round trip per shard touched, not per key.
+ */
+public class ShardedTokenStore implements TokenStore {
+
+    private final List<String> names;
+    private final List<TokenStore> shards;
+    private final long[] ringPoints;
+    private final int[] ringShards;
+
+    /**
+     * @param shards stores by a stable name, e.g. the shard's address; the name alone decides which keys it owns
+     */
+    public ShardedTokenStore(Map<String, ? extends TokenStore> shards, int virtualNodes) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.names = List.copyOf(shards.keySet());
+        this.shards = List.copyOf(shards.values());
+
+        long[][] points = new long[names.size() * virtualNodes][];
+        for (int shard = 0; shard < names.size(); shard++) {
+            for (int node = 0; node < virtualNodes; node++) {
+                points[shard * virtualNodes + node] = new long[]{hash(names.get(shard) + "#" + node), shard};
+            }
+        }
+        Arrays.sort(points, (a, b) -> Long.compare(a[0], b[0]));
+        this.ringPoints = new long[points.length];
+        this.ringShards = new int[points.length];
+        for (int i = 0; i < points.length; i++) {
+            ringPoints[i] = points[i][0];
+            ringShards[i] = (int) points[i][1];
+        }
+    }
+
+    /**
+     * Name of the shard that owns {@code key}.
+     */
+    String shardFor(String key) {
+        return names.get(shardIndex(key));
+    }
+
+    private int shardIndex(String key) {
+        int index = Arrays.binarySearch(ringPoints, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return ringShards[index == ringPoints.length ? 0 : index];
+    }
+
+    @Override
+    public Mono<Void> putAll(List<Entry> entries) {
+        List<List<Entry>> perShard = emptyBuckets();
+        for (Entry entry : entries) {
+            perShard.get(shardIndex(entry.key())).add(entry);
+        }
+        return Flux.range(0, shards.size())
+                .filter(shard -> !perShard.get(shard).isEmpty())
+                .flatMap(shard -> shards.get(shard).putAll(perShard.get(shard)))
+                .then();
+    }
+
+    @Override
+    public Mono<Boolean> exists(String key) {
+        return shards.get(shardIndex(key)).exists(key);
+    }
+
+    @Override
+    public Mono<List<String>> getAll(List<String> keys) {
+        List<List<String>> perShard = emptyBuckets();
+        int[] shardOfKey = new int[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            shardOfKey[i] = shardIndex(keys.get(i));
+            perShard.get(shardOfKey[i]).add(keys.get(i));
+        }
+        return Flux.range(0, shards.size())
+                .filter(shard -> !perShard.get(shard).isEmpty())
+                .flatMap(shard -> shards.get(shard).getAll(perShard.get(shard)).map(values -> new ShardValues(shard, values)))
+                .collectList()
+                .map(answers -> {
+                    List<List<String>> valuesByShard = new ArrayList<>(shards.size());
+                    for (int shard = 0; shard < shards.size(); shard++) {
+                        valuesByShard.add(null);
+                    }
+                    answers.forEach(answer -> valuesByShard.set(answer.shard(), answer.values()));
+                    // Walk the keys again, taking the next answer from each key's shard in turn
+                    int[] cursor = new int[shards.size()];
+                    List<String> values = new ArrayList<>(keys.size());
+                    for (int i = 0; i < keys.size(); i++) {
+                        values.add(valuesByShard.get(shardOfKey[i]).get(cursor[shardOfKey[i]]++));
+                    }
+                    return values;
+                });
+    }
+
+    @Override
+    public Mono<Long> delete(Collection<String> keys) {
+        List<List<String>> perShard = emptyBuckets();
+        for (String key : keys) {
+            perShard.get(shardIndex(key)).add(key);
+        }
+        return Flux.range(0, shards.size())
+                .filter(shard -> !perShard.get(shard).isEmpty())
+                .flatMap(shard -> shards.get(shard).delete(perShard.get(shard)))
+                .reduce(0L, Long::sum);
+    }
+
+    @Override
+    public void close() {
+        shards.forEach(TokenStore::close);
+    }
+
+    private <T> List<List<T>> emptyBuckets() {
+        List<List<T>> buckets = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            buckets.add(new ArrayList<>());
+        }
+        return buckets;
+    }
+
+    /**
+     * 64-bit FNV-1a finished with the MurmurHash3 mixer, which spreads similar keys ({@code jti:...}) evenly.
+     */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private record ShardValues(int shard, List<String> values) {
+    }
+}
@@ -0,0 +1,41 @@
+package com.learning.tokenstore;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * How active tokens are keyed in the {@link TokenStore}, set with {@code tokens.key-format} in both services.
+ * <ul>
+ *     <li>{@code TOKEN}: the full compact JWT (legacy format)</li>
+ *     <li>{@code JTI}: the compact binary encoding of the token's {@code jti}, see {@link TokenKeys}</li>
+ *     <li>{@code DUAL}: both; auth-service writes both keys and resource-service accepts either, while the
+ *     two services are migrated one after the other</li>
+ * </ul>
+ */
+public enum TokenKeyFormat {
+    TOKEN,
+    JTI,
+    DUAL;
+
+    public boolean writesTokenKey() {
+        return this != JTI;
+    }
+
+    public boolean writesJtiKey() {
+        return this != TOKEN;
+    }
+
+    /**
+     * The whitelist keys auth-service writes for a token in this format.
+     */
+    public List<String> keys(String token, String jti) {
+        List<String> keys = new ArrayList<>(2);
+        if (writesJtiKey()) {
+            keys.add(TokenKeys.forJti(jti));
+        }
+        if (writesTokenKey()) {
+            keys.add(token);
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,36 @@
+package com.learning.tokenstore;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Redis key encoding for the active-token whitelist.
+ * <p>
+ * A UUID {@code jti} is stored as its 16 raw bytes, Base64url-encoded without padding, which gives a
+ * 26 character key instead of the several hundred characters of the signed JWT.
+ */
+public final class TokenKeys {
+
+    public static final String JTI_PREFIX = "jti:";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private TokenKeys() {
+    }
+
+    public static String forJti(String jti) {
+        UUID uuid;
+        try {
+            uuid = UUID.fromString(jti);
+        } catch (IllegalArgumentException e) {
+            // Not issued by us as a UUID; still key it, just without the compact form
+            return JTI_PREFIX + jti;
+        }
+        byte[] bytes = ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+        return JTI_PREFIX + ENCODER.encodeToString(bytes);
+    }
+}
@@ -0,0 +1,41 @@
+package com.learning.tokenstore;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Storage for active-token whitelist entries: short string keys ({@code jti:...} or a full token) mapped
+ * to the owning username, each with its own TTL.
+ * <p>
+ * Implementations must answer batch calls with as few round trips as they can; the hot paths in both
+ * services only use the batch forms.
+ */
+public interface TokenStore extends AutoCloseable {
+
+    /**
+     * Writes every entry; completes once all writes are acknowledged.
+     */
+    Mono<Void> putAll(List<Entry> entries);
+
+    Mono<Boolean> exists(String key);
+
+    /**
+     * Values for {@code keys}, in the same order, with {@code null} for keys that are absent or expired.
+     */
+    Mono<List<String>> getAll(List<String> keys);
+
+    /**
+     * Emits how many of {@code keys} existed.
+     */
+    Mono<Long> delete(Collection<String> keys);
+
+    @Override
+    default void close() {
+    }
+
+    record Entry(String key, String value, Duration ttl) {
+    }
+}
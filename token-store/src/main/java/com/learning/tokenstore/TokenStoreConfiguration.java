@@ -0,0 +1,67 @@
+package com.learning.tokenstore;
+
+import io.lettuce.core.RedisURI;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Shared Redis template and {@link TokenStore} wiring for auth-service and resource-service.
+ * <p>
+ * {@code tokens.store.type} picks the store: {@code redis} (default) keeps the whitelist on the primary
+ * Redis, {@code sharded} spreads it over {@code tokens.store.shards} and {@code memory} keeps it in the
+ * JVM. The {@code activeTokensCache} template always points at the primary Redis, which still holds the
+ * deny set, the revocation channel, sessions, refresh tokens and login rate limits: even with {@code memory},
+ * auth-service needs Redis to log users in and to revoke tokens.
+ */
+@Slf4j
+@Configuration
+public class TokenStoreConfiguration {
+
+    @Bean("activeTokensCache")
+    public ReactiveRedisTemplate<String, String> activeTokensCache(ReactiveRedisConnectionFactory factory) {
+        return RedisTokenStore.stringTemplate(factory);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "tokens.store.type", havingValue = "redis", matchIfMissing = true)
+    public TokenStore redisTokenStore(@Qualifier("activeTokensCache") ReactiveRedisTemplate<String, String> activeTokensCache) {
+        return new RedisTokenStore(activeTokensCache);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "tokens.store.type", havingValue = "sharded")
+    public TokenStore shardedTokenStore(@Value("${tokens.store.shards}") String shards,
+                                        @Value("${tokens.store.virtual-nodes:160}") int virtualNodes) {
+        Map<String, TokenStore> stores = new LinkedHashMap<>();
+        for (String shard : shards.split(",")) {
+            if (shard.isBlank()) {
+                continue;
+            }
+            RedisURI redisUri = RedisURI.create(shard.trim());
+            // Named by address only, so changing a password or enabling TLS does not move any key
+            String name = redisUri.getHost() + ":" + redisUri.getPort() + "/" + redisUri.getDatabase();
+            if (stores.containsKey(name)) {
+                throw new IllegalStateException("Shard " + name + " is listed twice in tokens.store.shards");
+            }
+            stores.put(name, RedisTokenStore.connect(redisUri));
+        }
+        return new ShardedTokenStore(stores, virtualNodes);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "tokens.store.type", havingValue = "memory")
+    public TokenStore inMemoryTokenStore(@Value("${tokens.store.sweep-interval-ms:1000}") long sweepIntervalMillis) {
+        log.info("tokens.store.type=memory: only the whitelist is kept in this JVM; sessions, refresh tokens, "
+                + "revocation and login rate limits still use the primary Redis");
+        return new InMemoryTokenStore(sweepIntervalMillis);
+    }
+}
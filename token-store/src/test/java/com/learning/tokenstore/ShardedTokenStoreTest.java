@@ -0,0 +1,74 @@
+package com.learning.tokenstore;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardedTokenStoreTest {
+
+    @Test
+    void batchReadsComeBackInRequestOrderAcrossShards() {
+        Map<String, InMemoryTokenStore> shards = shards("a:6379/0", "b:6379/0", "c:6379/0");
+        try (ShardedTokenStore store = new ShardedTokenStore(shards, 160)) {
+            List<TokenStore.Entry> entries = IntStream.range(0, 300)
+                    .mapToObj(i -> new TokenStore.Entry("jti:" + i, "user-" + i, Duration.ofMinutes(5)))
+                    .toList();
+            store.putAll(entries).block();
+
+            List<String> keys = List.of("jti:42", "jti:missing", "jti:7", "jti:299", "jti:0");
+            assertEquals(Arrays.asList("user-42", null, "user-7", "user-299", "user-0"), store.getAll(keys).block());
+
+            // Every shard took part of the load
+            for (InMemoryTokenStore shard : shards.values()) {
+                long held = shard.getAll(entries.stream().map(TokenStore.Entry::key).toList()).block().stream()
+                        .filter(value -> value != null)
+                        .count();
+                assertTrue(held > 0);
+            }
+
+            assertEquals(2L, store.delete(List.of("jti:42", "jti:7", "jti:missing")).block());
+            assertNull(store.getAll(List.of("jti:42")).block().get(0));
+        }
+    }
+
+    @Test
+    void addingAShardMovesOnlyPartOfTheKeys() {
+        ShardedTokenStore before = new ShardedTokenStore(shards("a:6379/0", "b:6379/0", "c:6379/0"), 160);
+        ShardedTokenStore after = new ShardedTokenStore(shards("a:6379/0", "b:6379/0", "c:6379/0", "d:6379/0"), 160);
+
+        long moved = IntStream.range(0, 10_000)
+                .filter(i -> !before.shardFor("jti:" + i).equals(after.shardFor("jti:" + i)))
+                .count();
+        // Ideal is a quarter of the keys; a modulo scheme would move three quarters
+        assertTrue(moved < 3_500, "moved " + moved);
+        before.close();
+        after.close();
+    }
+
+    @Test
+    void reorderingTheShardsMovesNoKeys() {
+        ShardedTokenStore listed = new ShardedTokenStore(shards("a:6379/0", "b:6379/0", "c:6379/0"), 160);
+        ShardedTokenStore reordered = new ShardedTokenStore(shards("c:6379/0", "a:6379/0", "b:6379/0"), 160);
+
+        IntStream.range(0, 10_000).forEach(i -> assertEquals(listed.shardFor("jti:" + i), reordered.shardFor("jti:" + i)));
+        listed.close();
+        reordered.close();
+    }
+
+    private static Map<String, InMemoryTokenStore> shards(String... names) {
+        Map<String, InMemoryTokenStore> shards = new LinkedHashMap<>();
+        for (String name : names) {
+            shards.put(name, new InMemoryTokenStore(60_000));
+        }
+        return shards;
+    }
+}